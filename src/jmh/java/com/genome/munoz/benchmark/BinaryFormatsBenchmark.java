@@ -0,0 +1,124 @@
+package com.genome.munoz.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.genome.munoz.service.dto.GreetingDTO;
+import com.genome.munoz.service.dto.MessagesDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Encoding and decoding of a list of messages in JSON, CBOR and Smile, with the mappers of the application's message
+ * converters.
+ * <p>
+ * The size of the encoded list is reported as the {@code encodedBytes} secondary result of {@code encode}. Run with
+ * {@code ./gradlew jmh -Pjmh.args='BinaryFormatsBenchmark -prof gc'} to compare the allocations per operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatsBenchmark {
+
+    @Param({ "json", "cbor", "smile" })
+    String format;
+
+    @Param({ "20", "1000" })
+    int size;
+
+    private ConfigurableApplicationContext context;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private List<MessagesDTO> messages;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = JacksonContext.start(true);
+        ObjectMapper objectMapper = objectMapper();
+        JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, MessagesDTO.class);
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        GreetingDTO greeting = new GreetingDTO();
+        greeting.setId(1L);
+        greeting.setGreeting("Hello");
+        greeting.setVersion(0L);
+        Instant hireDate = Instant.parse("2022-04-01T00:00:00Z");
+        messages = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            MessagesDTO dto = new MessagesDTO();
+            dto.setId(i);
+            dto.setMessage("Message " + i);
+            dto.setHireDate(hireDate.plusSeconds(i));
+            dto.setVersion(0L);
+            dto.setIdempotencyKey("key-" + i);
+            dto.setGreeting(greeting);
+            messages.add(dto);
+        }
+        encoded = writer.writeValueAsBytes(messages);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] encode(EncodedSize encodedSize) throws Exception {
+        byte[] bytes = writer.writeValueAsBytes(messages);
+        encodedSize.encodedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<MessagesDTO> decode() throws Exception {
+        return reader.readValue(encoded);
+    }
+
+    private ObjectMapper objectMapper() {
+        switch (format) {
+            case "cbor":
+                return context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+            case "smile":
+                return context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+            default:
+                return JacksonContext.objectMapper(context);
+        }
+    }
+
+    /**
+     * Size of the encoded list, reported as it is at the end of each iteration instead of being timed.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long encodedBytes;
+    }
+}
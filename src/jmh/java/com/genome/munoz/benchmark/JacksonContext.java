@@ -0,0 +1,35 @@
+package com.genome.munoz.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genome.munoz.config.JacksonConfiguration;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * A Spring context with only the Jackson configuration of the application, so that the benchmarks serialize with the
+ * {@link ObjectMapper} the REST layer uses, modules and {@code spring.jackson} properties included.
+ */
+final class JacksonContext {
+
+    private JacksonContext() {}
+
+    /**
+     * @param blackbird whether to register the Blackbird module, see {@code application.jackson.blackbird}.
+     * @return the started context, to close when the benchmark is over.
+     */
+    static ConfigurableApplicationContext start(boolean blackbird) {
+        return new SpringApplicationBuilder(JacksonAutoConfiguration.class, JacksonConfiguration.class)
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .logStartupInfo(false)
+            .properties("application.jackson.blackbird=" + blackbird)
+            .run();
+    }
+
+    static ObjectMapper objectMapper(ConfigurableApplicationContext context) {
+        return context.getBean(ObjectMapper.class);
+    }
+}
@@ -0,0 +1,111 @@
+package com.genome.munoz.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.genome.munoz.service.dto.GreetingDTO;
+import com.genome.munoz.service.dto.MessagesDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Serialization of the lists of greetings and messages returned by the REST layer, with the {@link ObjectMapper} of
+ * the application, with and without the Blackbird module.
+ * <p>
+ * The {@code *WithWriter} benchmarks reuse an {@link ObjectWriter} built once for the list type, as
+ * {@code CachingJackson2HttpMessageConverter} does, the others resolve the serializers on every call as
+ * {@link ObjectMapper#writeValueAsBytes} does. Run with
+ * {@code ./gradlew jmh -Pjmh.args='JsonSerializationBenchmark -prof gc'} to compare the allocations per operation as
+ * well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({ "20", "1000" })
+    int size;
+
+    @Param({ "true", "false" })
+    boolean blackbird;
+
+    private ConfigurableApplicationContext context;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter greetingsWriter;
+
+    private ObjectWriter messagesWriter;
+
+    private List<GreetingDTO> greetings;
+
+    private List<MessagesDTO> messages;
+
+    @Setup
+    public void setUp() {
+        context = JacksonContext.start(blackbird);
+        objectMapper = JacksonContext.objectMapper(context);
+        greetingsWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, GreetingDTO.class));
+        messagesWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, MessagesDTO.class));
+        Instant hireDate = Instant.parse("2022-04-01T00:00:00Z");
+        greetings = new ArrayList<>(size);
+        messages = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            GreetingDTO greeting = new GreetingDTO();
+            greeting.setId(i);
+            greeting.setGreeting("Hello " + i);
+            greeting.setVersion(0L);
+            greetings.add(greeting);
+            MessagesDTO dto = new MessagesDTO();
+            dto.setId(i);
+            dto.setMessage("Message " + i);
+            dto.setHireDate(hireDate.plusSeconds(i));
+            dto.setVersion(0L);
+            dto.setIdempotencyKey("key-" + i);
+            dto.setGreeting(greetings.get(0));
+            messages.add(dto);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] greetings() throws Exception {
+        return objectMapper.writeValueAsBytes(greetings);
+    }
+
+    @Benchmark
+    public byte[] greetingsWithWriter() throws Exception {
+        return greetingsWriter.writeValueAsBytes(greetings);
+    }
+
+    @Benchmark
+    public byte[] messages() throws Exception {
+        return objectMapper.writeValueAsBytes(messages);
+    }
+
+    @Benchmark
+    public byte[] messagesWithWriter() throws Exception {
+        return messagesWriter.writeValueAsBytes(messages);
+    }
+}
@@ -0,0 +1,98 @@
+package com.genome.munoz.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genome.munoz.domain.Greeting;
+import com.genome.munoz.domain.Messages;
+import com.genome.munoz.service.dto.GreetingDTO;
+import com.genome.munoz.service.dto.MessagesDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Serialization of a page of messages, as entities and as the DTOs returned by the REST layer, with the
+ * {@link ObjectMapper} of the application.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.args='MessagesSerializationBenchmark -prof gc'} to compare the allocations per
+ * operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessagesSerializationBenchmark {
+
+    @Param({ "20", "1000" })
+    int size;
+
+    private ConfigurableApplicationContext context;
+
+    private ObjectMapper objectMapper;
+
+    private List<Messages> entities;
+
+    private List<MessagesDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        context = JacksonContext.start(true);
+        objectMapper = JacksonContext.objectMapper(context);
+        Greeting greeting = new Greeting().id(1L).greeting("Hello").version(0L);
+        GreetingDTO greetingDTO = new GreetingDTO();
+        greetingDTO.setId(greeting.getId());
+        greetingDTO.setGreeting(greeting.getGreeting());
+        greetingDTO.setVersion(greeting.getVersion());
+        Instant hireDate = Instant.parse("2022-04-01T00:00:00Z");
+        entities = new ArrayList<>(size);
+        dtos = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            Messages messages = new Messages()
+                .id(i)
+                .message("Message " + i)
+                .hireDate(hireDate.plusSeconds(i))
+                .version(0L)
+                .idempotencyKey("key-" + i)
+                .greeting(greeting);
+            entities.add(messages);
+            MessagesDTO dto = new MessagesDTO();
+            dto.setId(messages.getId());
+            dto.setMessage(messages.getMessage());
+            dto.setHireDate(messages.getHireDate());
+            dto.setVersion(messages.getVersion());
+            dto.setIdempotencyKey(messages.getIdempotencyKey());
+            dto.setGreeting(greetingDTO);
+            dtos.add(dto);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entities() throws Exception {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] dtos() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -1,6 +1,1076 @@
 package com.genome.munoz.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
+/**
+ * Properties specific to Genome.
+ * <p>
+ * Properties are configured in the {@code application.yml} file.
+ * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
+ */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    private final Datasource datasource = new Datasource();
+
+    private final HttpCache httpCache = new HttpCache();
+
+    private final Jackson jackson = new Jackson();
+
+    private final Liquibase liquibase = new Liquibase();
+
+    private final Messages messages = new Messages();
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    private final ResponseCache responseCache = new ResponseCache();
+
+    private final SqlStatistics sqlStatistics = new SqlStatistics();
+
+    private final Undertow undertow = new Undertow();
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    public HttpCache getHttpCache() {
+        return httpCache;
+    }
+
+    public Jackson getJackson() {
+        return jackson;
+    }
+
+    public Liquibase getLiquibase() {
+        return liquibase;
+    }
+
+    public Messages getMessages() {
+        return messages;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public SqlStatistics getSqlStatistics() {
+        return sqlStatistics;
+    }
+
+    public Undertow getUndertow() {
+        return undertow;
+    }
+
+    /**
+     * Adaptive limits of the requests in flight, see {@link com.genome.munoz.web.filter.ConcurrencyLimitFilter}.
+     */
+    public static class ConcurrencyLimit {
+
+        private boolean enabled = true;
+
+        /**
+         * Ant patterns of the paths never rejected, such as the health probes.
+         */
+        private List<String> excludedPaths = new ArrayList<>(List.of("/management/health/**"));
+
+        /**
+         * The limits, the first one matching the path applies.
+         */
+        private List<Limit> limits = defaultLimits();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getExcludedPaths() {
+            return excludedPaths;
+        }
+
+        public void setExcludedPaths(List<String> excludedPaths) {
+            this.excludedPaths = excludedPaths;
+        }
+
+        public List<Limit> getLimits() {
+            return limits;
+        }
+
+        public void setLimits(List<Limit> limits) {
+            this.limits = limits;
+        }
+
+        private static List<Limit> defaultLimits() {
+            Limit api = new Limit();
+            Limit management = new Limit();
+            management.setName("management");
+            management.setPaths(new ArrayList<>(List.of("/management/**")));
+            management.setInitialLimit(4);
+            management.setMinLimit(1);
+            management.setMaxLimit(20);
+            return new ArrayList<>(List.of(api, management));
+        }
+
+        public static class Limit {
+
+            /**
+             * The name of the limit in the metrics.
+             */
+            private String name = "api";
+
+            /**
+             * Ant patterns of the paths, such as {@code /api/**}.
+             */
+            private List<String> paths = new ArrayList<>(List.of("/api/**"));
+
+            private int initialLimit = 20;
+
+            private int minLimit = 4;
+
+            private int maxLimit = 200;
+
+            /**
+             * How much slower than the long-term latency the recent latency may get before the limit shrinks.
+             */
+            private double tolerance = 1.5;
+
+            /**
+             * The weight of every new limit estimate, from 0 (never change) to 1 (no smoothing).
+             */
+            private double smoothing = 0.2;
+
+            public String getName() {
+                return name;
+            }
+
+            public void setName(String name) {
+                this.name = name;
+            }
+
+            public List<String> getPaths() {
+                return paths;
+            }
+
+            public void setPaths(List<String> paths) {
+                this.paths = paths;
+            }
+
+            public int getInitialLimit() {
+                return initialLimit;
+            }
+
+            public void setInitialLimit(int initialLimit) {
+                this.initialLimit = initialLimit;
+            }
+
+            public int getMinLimit() {
+                return minLimit;
+            }
+
+            public void setMinLimit(int minLimit) {
+                this.minLimit = minLimit;
+            }
+
+            public int getMaxLimit() {
+                return maxLimit;
+            }
+
+            public void setMaxLimit(int maxLimit) {
+                this.maxLimit = maxLimit;
+            }
+
+            public double getTolerance() {
+                return tolerance;
+            }
+
+            public void setTolerance(double tolerance) {
+                this.tolerance = tolerance;
+            }
+
+            public double getSmoothing() {
+                return smoothing;
+            }
+
+            public void setSmoothing(double smoothing) {
+                this.smoothing = smoothing;
+            }
+        }
+    }
+
+    public static class Datasource {
+
+        private final Replica replica = new Replica();
+
+        private final PoolSizing poolSizing = new PoolSizing();
+
+        public Replica getReplica() {
+            return replica;
+        }
+
+        public PoolSizing getPoolSizing() {
+            return poolSizing;
+        }
+
+        /**
+         * Read replica used for {@code @Transactional(readOnly = true)} work.
+         */
+        public static class Replica {
+
+            private boolean enabled = false;
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            private String poolName = "Hikari-replica";
+
+            private int maximumPoolSize = 10;
+
+            private Duration maxLag = Duration.ofSeconds(5);
+
+            private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+            private String lagQuery =
+                "SELECT CASE WHEN pg_is_in_recovery() " +
+                "THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) ELSE 0 END";
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public String getPoolName() {
+                return poolName;
+            }
+
+            public void setPoolName(String poolName) {
+                this.poolName = poolName;
+            }
+
+            public int getMaximumPoolSize() {
+                return maximumPoolSize;
+            }
+
+            public void setMaximumPoolSize(int maximumPoolSize) {
+                this.maximumPoolSize = maximumPoolSize;
+            }
+
+            public Duration getMaxLag() {
+                return maxLag;
+            }
+
+            public void setMaxLag(Duration maxLag) {
+                this.maxLag = maxLag;
+            }
+
+            public Duration getLagCheckInterval() {
+                return lagCheckInterval;
+            }
+
+            public void setLagCheckInterval(Duration lagCheckInterval) {
+                this.lagCheckInterval = lagCheckInterval;
+            }
+
+            public String getLagQuery() {
+                return lagQuery;
+            }
+
+            public void setLagQuery(String lagQuery) {
+                this.lagQuery = lagQuery;
+            }
+        }
+
+        /**
+         * Adaptive sizing of the Hikari pools, see {@link com.genome.munoz.management.HikariPoolSizingService}.
+         */
+        public static class PoolSizing {
+
+            private boolean enabled = false;
+
+            private int minimumPoolSize = 5;
+
+            private int maximumPoolSize = 50;
+
+            private int step = 2;
+
+            private Duration interval = Duration.ofSeconds(15);
+
+            private Duration targetAcquireTime = Duration.ofMillis(10);
+
+            private Duration maxUsageTime = Duration.ofMillis(250);
+
+            private double idleUtilization = 0.5;
+
+            private int history = 50;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMinimumPoolSize() {
+                return minimumPoolSize;
+            }
+
+            public void setMinimumPoolSize(int minimumPoolSize) {
+                this.minimumPoolSize = minimumPoolSize;
+            }
+
+            public int getMaximumPoolSize() {
+                return maximumPoolSize;
+            }
+
+            public void setMaximumPoolSize(int maximumPoolSize) {
+                this.maximumPoolSize = maximumPoolSize;
+            }
+
+            public int getStep() {
+                return step;
+            }
+
+            public void setStep(int step) {
+                this.step = step;
+            }
+
+            public Duration getInterval() {
+                return interval;
+            }
+
+            public void setInterval(Duration interval) {
+                this.interval = interval;
+            }
+
+            public Duration getTargetAcquireTime() {
+                return targetAcquireTime;
+            }
+
+            public void setTargetAcquireTime(Duration targetAcquireTime) {
+                this.targetAcquireTime = targetAcquireTime;
+            }
+
+            public Duration getMaxUsageTime() {
+                return maxUsageTime;
+            }
+
+            public void setMaxUsageTime(Duration maxUsageTime) {
+                this.maxUsageTime = maxUsageTime;
+            }
+
+            public double getIdleUtilization() {
+                return idleUtilization;
+            }
+
+            public void setIdleUtilization(double idleUtilization) {
+                this.idleUtilization = idleUtilization;
+            }
+
+            public int getHistory() {
+                return history;
+            }
+
+            public void setHistory(int history) {
+                this.history = history;
+            }
+        }
+    }
+
+    /**
+     * {@code Cache-Control} of the responses, see {@link com.genome.munoz.web.filter.CacheControlFilter}.
+     */
+    public static class HttpCache {
+
+        private boolean enabled = true;
+
+        /**
+         * The policies of the {@code GET} and {@code HEAD} requests, the first one matching the path applies.
+         */
+        private List<Policy> policies = defaultPolicies();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<Policy> getPolicies() {
+            return policies;
+        }
+
+        public void setPolicies(List<Policy> policies) {
+            this.policies = policies;
+        }
+
+        private static List<Policy> defaultPolicies() {
+            // Fingerprinted assets, cached for jhipster.http.cache.time-to-live-in-days
+            Policy assets = new Policy();
+            assets.setPaths(List.of("/app/**", "/content/**", "/i18n/**"));
+            assets.setImmutable(true);
+            // The page referencing them, revalidated on every use
+            Policy index = new Policy();
+            index.setPaths(List.of("/", "/index.html"));
+            index.setNoCache(true);
+            // Reads of the REST API answering If-None-Match
+            Policy api = new Policy();
+            api.setPaths(List.of("/api/greetings", "/api/greeting", "/api/greeting/*", "/api/messages/stats"));
+            api.setMaxAge(Duration.ofSeconds(10));
+            api.setStaleWhileRevalidate(Duration.ofSeconds(60));
+            return new ArrayList<>(List.of(assets, index, api));
+        }
+
+        public static class Policy {
+
+            /**
+             * Ant patterns of the paths, such as {@code /content/**}.
+             */
+            private List<String> paths = new ArrayList<>();
+
+            /**
+             * How long the response is fresh; unset on an immutable policy, the
+             * {@code jhipster.http.cache.time-to-live-in-days}.
+             */
+            private Duration maxAge;
+
+            /**
+             * How long a stale response may still be served while it is revalidated in the background.
+             */
+            private Duration staleWhileRevalidate;
+
+            private boolean immutable = false;
+
+            /**
+             * Whether the response must be revalidated before each use, instead of having a {@code max-age}.
+             */
+            private boolean noCache = false;
+
+            public List<String> getPaths() {
+                return paths;
+            }
+
+            public void setPaths(List<String> paths) {
+                this.paths = paths;
+            }
+
+            public Duration getMaxAge() {
+                return maxAge;
+            }
+
+            public void setMaxAge(Duration maxAge) {
+                this.maxAge = maxAge;
+            }
+
+            public Duration getStaleWhileRevalidate() {
+                return staleWhileRevalidate;
+            }
+
+            public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+                this.staleWhileRevalidate = staleWhileRevalidate;
+            }
+
+            public boolean isImmutable() {
+                return immutable;
+            }
+
+            public void setImmutable(boolean immutable) {
+                this.immutable = immutable;
+            }
+
+            public boolean isNoCache() {
+                return noCache;
+            }
+
+            public void setNoCache(boolean noCache) {
+                this.noCache = noCache;
+            }
+        }
+    }
+
+    /**
+     * JSON serialization, see {@link JacksonConfiguration}.
+     */
+    public static class Jackson {
+
+        /**
+         * Whether to register the Blackbird module, which replaces the reflective property accessors with generated
+         * lambdas.
+         */
+        private boolean blackbird = true;
+
+        public boolean isBlackbird() {
+            return blackbird;
+        }
+
+        public void setBlackbird(boolean blackbird) {
+            this.blackbird = blackbird;
+        }
+    }
+
+    public static class Liquibase {
+
+        /**
+         * Skip the Liquibase update when the changelogs are unchanged since the last one, see
+         * {@link FastStartSpringLiquibase}.
+         */
+        private boolean fastStart = false;
+
+        public boolean isFastStart() {
+            return fastStart;
+        }
+
+        public void setFastStart(boolean fastStart) {
+            this.fastStart = fastStart;
+        }
+    }
+
+    public static class Messages {
+
+        private final Partitioning partitioning = new Partitioning();
+
+        private final Search search = new Search();
+
+        private final Archive archive = new Archive();
+
+        private final Stats stats = new Stats();
+
+        public Partitioning getPartitioning() {
+            return partitioning;
+        }
+
+        public Search getSearch() {
+            return search;
+        }
+
+        public Archive getArchive() {
+            return archive;
+        }
+
+        public Stats getStats() {
+            return stats;
+        }
+
+        /**
+         * Monthly range partitions of the {@code messages} table on PostgreSQL, see
+         * {@link com.genome.munoz.service.MessagesPartitionService}.
+         */
+        public static class Partitioning {
+
+            public enum RetentionAction {
+                DETACH,
+                DROP,
+            }
+
+            private boolean enabled = true;
+
+            private String cron = "0 30 2 * * ?";
+
+            private int premakeMonths = 3;
+
+            private int retentionMonths = 0;
+
+            private RetentionAction retentionAction = RetentionAction.DETACH;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getCron() {
+                return cron;
+            }
+
+            public void setCron(String cron) {
+                this.cron = cron;
+            }
+
+            public int getPremakeMonths() {
+                return premakeMonths;
+            }
+
+            public void setPremakeMonths(int premakeMonths) {
+                this.premakeMonths = premakeMonths;
+            }
+
+            public int getRetentionMonths() {
+                return retentionMonths;
+            }
+
+            public void setRetentionMonths(int retentionMonths) {
+                this.retentionMonths = retentionMonths;
+            }
+
+            public RetentionAction getRetentionAction() {
+                return retentionAction;
+            }
+
+            public void setRetentionAction(RetentionAction retentionAction) {
+                this.retentionAction = retentionAction;
+            }
+        }
+
+        /**
+         * In-memory full-text index of the messages, see {@link com.genome.munoz.service.MessagesSearchService}.
+         */
+        public static class Search {
+
+            private String snapshotFile;
+
+            private Duration snapshotInterval = Duration.ofMinutes(10);
+
+            private int rebuildParallelism = Runtime.getRuntime().availableProcessors();
+
+            private int rebuildBatchSize = 10_000;
+
+            public String getSnapshotFile() {
+                return snapshotFile;
+            }
+
+            public void setSnapshotFile(String snapshotFile) {
+                this.snapshotFile = snapshotFile;
+            }
+
+            public Duration getSnapshotInterval() {
+                return snapshotInterval;
+            }
+
+            public void setSnapshotInterval(Duration snapshotInterval) {
+                this.snapshotInterval = snapshotInterval;
+            }
+
+            public int getRebuildParallelism() {
+                return rebuildParallelism;
+            }
+
+            public void setRebuildParallelism(int rebuildParallelism) {
+                this.rebuildParallelism = rebuildParallelism;
+            }
+
+            public int getRebuildBatchSize() {
+                return rebuildBatchSize;
+            }
+
+            public void setRebuildBatchSize(int rebuildBatchSize) {
+                this.rebuildBatchSize = rebuildBatchSize;
+            }
+        }
+
+        /**
+         * Moves of the old messages to {@code messages_archive}, see {@link com.genome.munoz.service.MessagesArchiveService}.
+         */
+        public static class Archive {
+
+            private boolean enabled = false;
+
+            private String cron = "0 0 3 * * ?";
+
+            private Duration age = Duration.ofDays(365);
+
+            private int batchSize = 1000;
+
+            private Duration pause = Duration.ofMillis(100);
+
+            private Duration maxRunTime = Duration.ofHours(1);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getCron() {
+                return cron;
+            }
+
+            public void setCron(String cron) {
+                this.cron = cron;
+            }
+
+            public Duration getAge() {
+                return age;
+            }
+
+            public void setAge(Duration age) {
+                this.age = age;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public Duration getPause() {
+                return pause;
+            }
+
+            public void setPause(Duration pause) {
+                this.pause = pause;
+            }
+
+            public Duration getMaxRunTime() {
+                return maxRunTime;
+            }
+
+            public void setMaxRunTime(Duration maxRunTime) {
+                this.maxRunTime = maxRunTime;
+            }
+        }
+
+        /**
+         * Daily rollups of the messages per greeting, see {@link com.genome.munoz.service.MessagesStatsService}.
+         */
+        public static class Stats {
+
+            private Duration refreshInterval = Duration.ofSeconds(5);
+
+            private String backfillCron = "0 0 4 * * ?";
+
+            private int backfillDays = 31;
+
+            public Duration getRefreshInterval() {
+                return refreshInterval;
+            }
+
+            public void setRefreshInterval(Duration refreshInterval) {
+                this.refreshInterval = refreshInterval;
+            }
+
+            public String getBackfillCron() {
+                return backfillCron;
+            }
+
+            public void setBackfillCron(String backfillCron) {
+                this.backfillCron = backfillCron;
+            }
+
+            public int getBackfillDays() {
+                return backfillDays;
+            }
+
+            public void setBackfillDays(int backfillDays) {
+                this.backfillDays = backfillDays;
+            }
+        }
+    }
+
+    /**
+     * Token buckets per client of the REST API, see {@link com.genome.munoz.web.filter.RateLimitFilter}.
+     */
+    public static class RateLimit {
+
+        private boolean enabled = true;
+
+        /**
+         * The number of buckets kept: new clients share an overflow bucket per limit while they are all in use.
+         */
+        private int maxClients = 100_000;
+
+        /**
+         * The limits, the first one matching the path and the authorities of the client applies.
+         */
+        private List<Limit> limits = defaultLimits();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        public void setMaxClients(int maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        public List<Limit> getLimits() {
+            return limits;
+        }
+
+        public void setLimits(List<Limit> limits) {
+            this.limits = limits;
+        }
+
+        private static List<Limit> defaultLimits() {
+            Limit admin = new Limit();
+            admin.setName("admin");
+            admin.setAuthority("ROLE_ADMIN");
+            admin.setCapacity(1000);
+            admin.setRefillTokens(500);
+            Limit api = new Limit();
+            api.setName("api");
+            return new ArrayList<>(List.of(admin, api));
+        }
+
+        public static class Limit {
+
+            /**
+             * The name of the limit in the metrics.
+             */
+            private String name = "api";
+
+            /**
+             * Ant patterns of the paths, such as {@code /api/messages/**}.
+             */
+            private List<String> paths = new ArrayList<>(List.of("/api/**"));
+
+            /**
+             * The authority the client must have, any client if not set.
+             */
+            private String authority;
+
+            /**
+             * The requests a client may burst.
+             */
+            private int capacity = 200;
+
+            /**
+             * The requests given back every {@code refill-period}.
+             */
+            private int refillTokens = 100;
+
+            private Duration refillPeriod = Duration.ofSeconds(1);
+
+            public String getName() {
+                return name;
+            }
+
+            public void setName(String name) {
+                this.name = name;
+            }
+
+            public List<String> getPaths() {
+                return paths;
+            }
+
+            public void setPaths(List<String> paths) {
+                this.paths = paths;
+            }
+
+            public String getAuthority() {
+                return authority;
+            }
+
+            public void setAuthority(String authority) {
+                this.authority = authority;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public int getRefillTokens() {
+                return refillTokens;
+            }
+
+            public void setRefillTokens(int refillTokens) {
+                this.refillTokens = refillTokens;
+            }
+
+            public Duration getRefillPeriod() {
+                return refillPeriod;
+            }
+
+            public void setRefillPeriod(Duration refillPeriod) {
+                this.refillPeriod = refillPeriod;
+            }
+        }
+    }
+
+    /**
+     * Compressed bodies of the {@code GET} responses with an {@code ETag}, see
+     * {@link com.genome.munoz.web.filter.CompressedResponseCacheFilter}.
+     */
+    public static class ResponseCache {
+
+        private boolean enabled = true;
+
+        /**
+         * Ant patterns of the paths whose responses are cached.
+         */
+        private List<String> paths = new ArrayList<>(List.of("/api/greetings", "/api/greeting"));
+
+        /**
+         * The number of responses kept, the least recently used being evicted.
+         */
+        private int maxEntries = 256;
+
+        /**
+         * Smaller responses are not compressed, as {@code server.compression.min-response-size}.
+         */
+        private DataSize minResponseSize = DataSize.ofKilobytes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public DataSize getMinResponseSize() {
+            return minResponseSize;
+        }
+
+        public void setMinResponseSize(DataSize minResponseSize) {
+            this.minResponseSize = minResponseSize;
+        }
+    }
+
+    /**
+     * SQL statements per request, see {@link com.genome.munoz.web.filter.SqlStatisticsFilter}.
+     */
+    public static class SqlStatistics {
+
+        private boolean enabled = true;
+
+        private boolean serverTiming = false;
+
+        private boolean failOnBudgetExceeded = false;
+
+        private int repeatedSelectThreshold = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isServerTiming() {
+            return serverTiming;
+        }
+
+        public void setServerTiming(boolean serverTiming) {
+            this.serverTiming = serverTiming;
+        }
+
+        public boolean isFailOnBudgetExceeded() {
+            return failOnBudgetExceeded;
+        }
+
+        public void setFailOnBudgetExceeded(boolean failOnBudgetExceeded) {
+            this.failOnBudgetExceeded = failOnBudgetExceeded;
+        }
+
+        public int getRepeatedSelectThreshold() {
+            return repeatedSelectThreshold;
+        }
+
+        public void setRepeatedSelectThreshold(int repeatedSelectThreshold) {
+            this.repeatedSelectThreshold = repeatedSelectThreshold;
+        }
+    }
+
+    /**
+     * Buffer pool of Undertow, see {@link com.genome.munoz.config.UndertowConfiguration}. The I/O threads, worker
+     * threads and buffer size are the {@code server.undertow} properties of Spring Boot.
+     */
+    public static class Undertow {
+
+        /**
+         * The released buffers kept in the pool, unbounded if {@code -1}.
+         */
+        private int bufferPoolMaxSize = -1;
+
+        /**
+         * The released buffers each thread keeps for itself before returning them to the pool.
+         */
+        private int bufferPoolThreadLocalCacheSize = 4;
+
+        public int getBufferPoolMaxSize() {
+            return bufferPoolMaxSize;
+        }
+
+        public void setBufferPoolMaxSize(int bufferPoolMaxSize) {
+            this.bufferPoolMaxSize = bufferPoolMaxSize;
+        }
+
+        public int getBufferPoolThreadLocalCacheSize() {
+            return bufferPoolThreadLocalCacheSize;
+        }
+
+        public void setBufferPoolThreadLocalCacheSize(int bufferPoolThreadLocalCacheSize) {
+            this.bufferPoolThreadLocalCacheSize = bufferPoolThreadLocalCacheSize;
+        }
+    }
+}
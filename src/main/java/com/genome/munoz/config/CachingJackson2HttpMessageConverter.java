@@ -0,0 +1,94 @@
+package com.genome.munoz.config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.TypeUtils;
+
+/**
+ * A {@link MappingJackson2HttpMessageConverter} which writes the collections returned by the REST layer, such as the
+ * lists of greetings and messages, with an {@link ObjectWriter} built once per declared return type.
+ * <p>
+ * The default converter builds a new writer on every response, resolves the declared type and looks up the root
+ * serializer before writing anything. The other responses, such as single DTOs which may be subclasses of their
+ * declared type, JSON views and filters, server-sent events or non UTF-8 charsets, are written as the default converter
+ * does.
+ */
+public class CachingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public CachingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        ObjectWriter writer = findWriter(object, type, outputMessage.getHeaders().getContentType());
+        if (writer == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        try (
+            JsonGenerator generator = getObjectMapper()
+                .getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)
+        ) {
+            writePrefix(generator, object);
+            writer.writeValue(generator, object);
+            writeSuffix(generator, object);
+            generator.flush();
+        } catch (InvalidDefinitionException e) {
+            throw new HttpMessageConversionException("Type definition error: " + e.getType(), e);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * @return the writer of the collection type {@code type}, or {@code null} to write {@code object} as the default
+     * converter does.
+     */
+    @Nullable
+    ObjectWriter findWriter(Object object, @Nullable Type type, @Nullable MediaType contentType) {
+        if (type == null || object instanceof MappingJacksonValue || !isPlainJson(contentType)) {
+            return null;
+        }
+        ObjectWriter writer = writers.get(type);
+        if (writer == null) {
+            JavaType javaType = getJavaType(type, null);
+            if (!javaType.isContainerType()) {
+                return null;
+            }
+            writer = writers.computeIfAbsent(type, key -> getObjectMapper().writerFor(javaType));
+        }
+        return TypeUtils.isAssignable(type, object.getClass()) ? writer : null;
+    }
+
+    private static boolean isPlainJson(@Nullable MediaType contentType) {
+        return (
+            contentType == null ||
+            (
+                !contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) &&
+                (contentType.getCharset() == null || StandardCharsets.UTF_8.equals(contentType.getCharset()))
+            )
+        );
+    }
+}
@@ -1,12 +1,28 @@
 package com.genome.munoz.config;
 
+import com.genome.munoz.management.SqlStatisticsDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
 import java.sql.SQLException;
+import java.util.Map;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -54,4 +70,125 @@ public class DatabaseConfiguration {
         }
         return String.valueOf(port);
     }
+
+    /**
+     * Record the statements of each Hikari pool in the per-request SQL statistics.
+     * <p>
+     * The pools are instrumented rather than the {@link Primary} data source, so that a statement routed through
+     * several data sources is only recorded once.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.sql-statistics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HikariDataSource ? SqlStatisticsDataSource.instrument((HikariDataSource) bean) : bean;
+            }
+        };
+    }
+
+    /**
+     * Read/write splitting, enabled with {@code application.datasource.replica.enabled}.
+     * <p>
+     * Two Hikari pools are created, both tuned from {@code spring.datasource.hikari}: the primary one, also used by
+     * Liquibase, and the replica one. The {@link Primary} data source routes read-only transactions to the replica
+     * as long as the {@link ReplicaLagMonitor} considers it up to date.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "application.datasource.replica", name = "enabled", havingValue = "true")
+    public static class ReplicaConfiguration {
+
+        static final String DEFAULT_PRIMARY_POOL_NAME = "Hikari-primary";
+
+        private final Logger log = LoggerFactory.getLogger(ReplicaConfiguration.class);
+
+        private final Environment env;
+
+        private final ApplicationProperties.Datasource.Replica replicaProperties;
+
+        public ReplicaConfiguration(Environment env, ApplicationProperties applicationProperties) {
+            this.env = env;
+            this.replicaProperties = applicationProperties.getDatasource().getReplica();
+        }
+
+        @Bean(destroyMethod = "close")
+        @LiquibaseDataSource
+        public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+            HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+            primary.setPoolName(primaryPoolName(env));
+            return primary;
+        }
+
+        @Bean(destroyMethod = "close")
+        public HikariDataSource replicaDataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource) {
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(replicaProperties.getUrl());
+            replica.setUsername(replicaProperties.getUsername());
+            replica.setPassword(replicaProperties.getPassword());
+            replica.setPoolName(replicaProperties.getPoolName());
+            replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            log.debug("Read-only transactions are routed to replica {}", replicaProperties.getUrl());
+            return replica;
+        }
+
+        @Bean
+        public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") HikariDataSource replicaDataSource) {
+            return new ReplicaLagMonitor(replicaDataSource, replicaProperties);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor
+        ) {
+            ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primaryDataSource,
+                replicaDataSource,
+                replicaLagMonitor::isReplicaAvailable
+            );
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+            dataSource.setDefaultAutoCommit(primaryDataSource.isAutoCommit());
+            return dataSource;
+        }
+
+        /**
+         * Tag the {@code hikaricp.*} meters of each pool with its {@code role}.
+         */
+        @Bean
+        public MeterFilter hikariRoleMeterFilter() {
+            return hikariRoleMeterFilter(
+                Map.of(
+                    primaryPoolName(env),
+                    ReadWriteRoutingDataSource.Role.PRIMARY.tagValue(),
+                    replicaProperties.getPoolName(),
+                    ReadWriteRoutingDataSource.Role.REPLICA.tagValue()
+                )
+            );
+        }
+
+        static MeterFilter hikariRoleMeterFilter(Map<String, String> roleByPoolName) {
+            return new MeterFilter() {
+                @Override
+                public Meter.Id map(Meter.Id id) {
+                    if (id.getName().startsWith("hikaricp.")) {
+                        String role = roleByPoolName.get(id.getTag("pool"));
+                        if (role != null) {
+                            return id.withTag(Tag.of("role", role));
+                        }
+                    }
+                    return id;
+                }
+            };
+        }
+
+        private static String primaryPoolName(Environment env) {
+            return Binder.get(env).bind("spring.datasource.hikari.pool-name", String.class).orElse(DEFAULT_PRIMARY_POOL_NAME);
+        }
+    }
 }
@@ -0,0 +1,194 @@
+package com.genome.munoz.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+import tech.jhipster.config.liquibase.AsyncSpringLiquibase;
+
+/**
+ * {@link AsyncSpringLiquibase} that skips the Liquibase update when the changelogs have not changed since the last one.
+ * <p>
+ * The digest of all the files under {@code config/liquibase} is computed at build time by the
+ * {@code liquibaseChangelogDigest} Gradle task, or at startup when it is missing, and combined with the contexts and
+ * labels. After each update, it is stored with the update duration in the {@code databasechangelog_digest} table; at
+ * the next startup, a matching digest skips the parsing, checksumming and locking of the changelogs.
+ */
+public class FastStartSpringLiquibase extends AsyncSpringLiquibase {
+
+    static final String CHANGELOG_DIRECTORY = "config/liquibase/";
+
+    static final String DIGEST_RESOURCE = CHANGELOG_DIRECTORY + "changelog.sha256";
+
+    private static final String MARKER_ID = "master";
+
+    private final Logger log = LoggerFactory.getLogger(FastStartSpringLiquibase.class);
+
+    private boolean skipped;
+
+    public FastStartSpringLiquibase(Executor executor, Environment env) {
+        super(executor, env);
+    }
+
+    @Override
+    protected void performUpdate(Liquibase liquibase) throws LiquibaseException {
+        skipped = false;
+        if (dropFirst || clearCheckSums) {
+            super.performUpdate(liquibase);
+            return;
+        }
+        Connection connection = ((JdbcConnection) liquibase.getDatabase().getConnection()).getUnderlyingConnection();
+        String digest = digest();
+        Long savedMillis = lastUpdateMillis(connection, digest);
+        if (savedMillis != null) {
+            skipped = true;
+            log.info("Skipped the Liquibase update, changelogs are unchanged (digest {}): saved about {} ms", digest, savedMillis);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        super.performUpdate(liquibase);
+        recordUpdate(connection, digest, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Whether the last run skipped the Liquibase update.
+     */
+    boolean isSkipped() {
+        return skipped;
+    }
+
+    String digest() {
+        return sha256(changelogDigest(resourceLoader) + '\n' + contexts + '\n' + labels);
+    }
+
+    /**
+     * @return the duration of the update that recorded {@code digest}, or {@code null} if it is not the last one.
+     */
+    private Long lastUpdateMillis(Connection connection, String digest) {
+        try (
+            PreparedStatement statement = connection.prepareStatement(
+                "select digest, duration_ms from databasechangelog_digest where id = ?"
+            )
+        ) {
+            statement.setString(1, MARKER_ID);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && digest.equals(rs.getString(1)) ? rs.getLong(2) : null;
+            }
+        } catch (SQLException e) {
+            // First run, the table does not exist yet
+            log.debug("No Liquibase changelog digest: {}", e.getMessage());
+            rollbackQuietly(connection);
+            return null;
+        }
+    }
+
+    private void recordUpdate(Connection connection, String digest, long durationMillis) {
+        try {
+            try (PreparedStatement delete = connection.prepareStatement("delete from databasechangelog_digest where id = ?")) {
+                delete.setString(1, MARKER_ID);
+                delete.executeUpdate();
+            }
+            try (
+                PreparedStatement insert = connection.prepareStatement(
+                    "insert into databasechangelog_digest (id, digest, duration_ms, updated_at) values (?, ?, ?, ?)"
+                )
+            ) {
+                insert.setString(1, MARKER_ID);
+                insert.setString(2, digest);
+                insert.setLong(3, durationMillis);
+                insert.setTimestamp(4, Timestamp.from(Instant.now()));
+                insert.executeUpdate();
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not record the Liquibase changelog digest, the next startup will run Liquibase: {}", e.getMessage());
+            rollbackQuietly(connection);
+        }
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            // The connection is unusable anyway
+        }
+    }
+
+    /**
+     * The digest computed at build time, or the same digest computed from the classpath.
+     */
+    static String changelogDigest(ResourceLoader resourceLoader) {
+        Resource digest = resourceLoader.getResource("classpath:" + DIGEST_RESOURCE);
+        try {
+            if (digest.exists()) {
+                try (InputStream in = digest.getInputStream()) {
+                    return StreamUtils.copyToString(in, StandardCharsets.UTF_8).trim();
+                }
+            }
+            // Same algorithm as the liquibaseChangelogDigest task of build.gradle
+            Map<String, Resource> changelogs = new TreeMap<>();
+            for (Resource resource : new PathMatchingResourcePatternResolver(resourceLoader).getResources(
+                "classpath:" + CHANGELOG_DIRECTORY + "**/*"
+            )) {
+                String url = resource.getURL().toString();
+                if (resource.isReadable() && !url.endsWith("/")) {
+                    String path = url.substring(url.lastIndexOf(CHANGELOG_DIRECTORY) + CHANGELOG_DIRECTORY.length());
+                    if (!path.equals("changelog.sha256")) {
+                        changelogs.put(path, resource);
+                    }
+                }
+            }
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, Resource> changelog : changelogs.entrySet()) {
+                messageDigest.update(changelog.getKey().getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+                try (InputStream in = changelog.getValue().getInputStream()) {
+                    messageDigest.update(StreamUtils.copyToByteArray(in));
+                }
+            }
+            return toHex(messageDigest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not compute the digest of the Liquibase changelogs", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -6,6 +6,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+/**
+ * Feign clients encode and decode with the {@code HttpMessageConverters} of Spring MVC, so a client declaring
+ * {@code consumes} or {@code produces} of {@code application/cbor} or {@code application/x-jackson-smile} uses the
+ * binary converters of {@link JacksonConfiguration}.
+ */
 @Configuration
 @EnableFeignClients(basePackages = "com.genome.munoz")
 @Import(FeignClientsConfiguration.class)
@@ -24,8 +24,11 @@ public class LiquibaseConfiguration {
 
     private final Environment env;
 
-    public LiquibaseConfiguration(Environment env) {
+    private final ApplicationProperties applicationProperties;
+
+    public LiquibaseConfiguration(Environment env, ApplicationProperties applicationProperties) {
         this.env = env;
+        this.applicationProperties = applicationProperties;
     }
 
     @Bean
@@ -46,6 +49,12 @@ public class LiquibaseConfiguration {
             dataSource.getIfUnique(),
             dataSourceProperties
         );
+        if (applicationProperties.getLiquibase().isFastStart()) {
+            // Keep the data source selected by JHipster, only the update step changes
+            SpringLiquibase fastStartLiquibase = new FastStartSpringLiquibase(executor, env);
+            fastStartLiquibase.setDataSource(liquibase.getDataSource());
+            liquibase = fastStartLiquibase;
+        }
         liquibase.setChangeLog("classpath:config/liquibase/master.xml");
         liquibase.setContexts(liquibaseProperties.getContexts());
         liquibase.setDefaultSchema(liquibaseProperties.getDefaultSchema());
@@ -0,0 +1,110 @@
+package com.genome.munoz.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.connector.PooledByteBuffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Undertow {@link ByteBufferPool} counting the buffers allocated and in use, published as the
+ * {@code undertow.buffer.pool.*} meters, to size {@code server.undertow.buffer-size} and the pool from data.
+ */
+public class MeteredByteBufferPool implements ByteBufferPool, MeterBinder {
+
+    private final ByteBufferPool delegate;
+
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    private final LongAdder allocations = new LongAdder();
+
+    public MeteredByteBufferPool(ByteBufferPool delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public PooledByteBuffer allocate() {
+        PooledByteBuffer buffer = delegate.allocate();
+        allocations.increment();
+        inUse.incrementAndGet();
+        return new MeteredPooledByteBuffer(buffer);
+    }
+
+    @Override
+    public ByteBufferPool getArrayBackedPool() {
+        return delegate.isDirect() ? delegate.getArrayBackedPool() : this;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public int getBufferSize() {
+        return delegate.getBufferSize();
+    }
+
+    @Override
+    public boolean isDirect() {
+        return delegate.isDirect();
+    }
+
+    int getInUse() {
+        return inUse.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        String direct = String.valueOf(isDirect());
+        Gauge
+            .builder("undertow.buffer.pool.in.use", inUse, AtomicInteger::get)
+            .description("Buffers of the Undertow pool in use")
+            .baseUnit("buffers")
+            .tag("direct", direct)
+            .register(registry);
+        Gauge
+            .builder("undertow.buffer.pool.in.use.bytes", inUse, buffers -> (double) buffers.get() * getBufferSize())
+            .description("Memory of the buffers of the Undertow pool in use")
+            .baseUnit("bytes")
+            .tag("direct", direct)
+            .register(registry);
+        FunctionCounter
+            .builder("undertow.buffer.pool.allocations", allocations, LongAdder::sum)
+            .description("Buffers allocated from the Undertow pool")
+            .baseUnit("buffers")
+            .tag("direct", direct)
+            .register(registry);
+    }
+
+    private final class MeteredPooledByteBuffer implements PooledByteBuffer {
+
+        private final PooledByteBuffer buffer;
+
+        MeteredPooledByteBuffer(PooledByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public ByteBuffer getBuffer() {
+            return buffer.getBuffer();
+        }
+
+        @Override
+        public void close() {
+            if (buffer.isOpen()) {
+                buffer.close();
+                inUse.decrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return buffer.isOpen();
+        }
+    }
+}
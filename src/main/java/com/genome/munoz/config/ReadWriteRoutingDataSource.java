@@ -0,0 +1,44 @@
+package com.genome.munoz.config;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes {@code @Transactional(readOnly = true)} work to the replica pool and everything else to the primary pool.
+ * <p>
+ * The routing key is resolved when the first statement runs, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: otherwise the connection is fetched
+ * before the transaction manager has published the read-only flag.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Role {
+        PRIMARY,
+        REPLICA;
+
+        public String tagValue() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final BooleanSupplier replicaAvailable;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+        setTargetDataSources(Map.of(Role.PRIMARY, primary, Role.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaAvailable.getAsBoolean()) {
+            return Role.REPLICA;
+        }
+        return Role.PRIMARY;
+    }
+}
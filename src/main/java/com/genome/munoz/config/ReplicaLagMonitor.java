@@ -0,0 +1,106 @@
+package com.genome.munoz.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.util.StringUtils;
+
+/**
+ * Replication-lag guard for the read replica.
+ * <p>
+ * The replica is only eligible for read-only transactions while it answers the lag query within
+ * {@code application.datasource.replica.max-lag}; until the first successful check, and whenever a check fails,
+ * reads fall back to the primary. So do they when no check succeeded for {@value #STALE_CHECK_INTERVALS} lag check
+ * intervals, such as when the scheduler is stalled or a check is blocked on a connection, as the replica may have
+ * fallen behind since.
+ */
+public class ReplicaLagMonitor implements SchedulingConfigurer {
+
+    static final int STALE_CHECK_INTERVALS = 3;
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+
+    private final ApplicationProperties.Datasource.Replica properties;
+
+    private volatile boolean available;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    private volatile long lastCheckNanos;
+
+    private final LongSupplier nanoTime;
+
+    public ReplicaLagMonitor(DataSource replica, ApplicationProperties.Datasource.Replica properties) {
+        this(replica, properties, System::nanoTime);
+    }
+
+    ReplicaLagMonitor(DataSource replica, ApplicationProperties.Datasource.Replica properties, LongSupplier nanoTime) {
+        this.replica = replica;
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::checkLag, properties.getLagCheckInterval().toMillis());
+    }
+
+    /**
+     * Measure the replica lag and update its availability.
+     */
+    public void checkLag() {
+        boolean wasAvailable = available;
+        try (Connection connection = replica.getConnection()) {
+            lagSeconds = queryLagSeconds(connection);
+            Duration maxLag = properties.getMaxLag();
+            available = lagSeconds * 1000 <= maxLag.toMillis();
+            lastCheckNanos = nanoTime.getAsLong();
+            if (!available && wasAvailable) {
+                log.warn("Replica lag of {}s exceeds {}, routing reads to the primary", lagSeconds, maxLag);
+            }
+        } catch (SQLException e) {
+            lagSeconds = Double.NaN;
+            available = false;
+            if (wasAvailable) {
+                log.warn("Replica lag check failed, routing reads to the primary: {}", e.getMessage());
+            }
+        }
+        if (available && !wasAvailable) {
+            log.info("Replica is available, routing read-only transactions to it");
+        }
+    }
+
+    private double queryLagSeconds(Connection connection) throws SQLException {
+        if (!StringUtils.hasText(properties.getLagQuery())) {
+            if (!connection.isValid(1)) {
+                throw new SQLException("Replica connection is not valid");
+            }
+            return 0;
+        }
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+            return rs.next() ? rs.getDouble(1) : 0;
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        if (!available) {
+            return false;
+        }
+        long staleAfterNanos = properties.getLagCheckInterval().toNanos() * STALE_CHECK_INTERVALS;
+        return nanoTime.getAsLong() - lastCheckNanos <= staleAfterNanos;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
@@ -0,0 +1,123 @@
+package com.genome.munoz.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.undertow.Undertow;
+import io.undertow.server.DefaultByteBufferPool;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Undertow sizing and metrics.
+ * <p>
+ * The I/O threads, worker threads and buffers are configured by the {@code server.undertow} properties of Spring
+ * Boot, and the buffer pool by {@code application.undertow}. The buffer pool is published as the
+ * {@code undertow.buffer.pool.*} meters, and the XNIO worker, which runs the blocking requests, as the
+ * {@code undertow.worker.*} meters read from its MBean once the server started.
+ */
+@Configuration
+@ConditionalOnClass(Undertow.class)
+public class UndertowConfiguration {
+
+    private static final String XNIO_WORKERS = "org.xnio:type=Xnio,provider=*,worker=*";
+
+    private final Logger log = LoggerFactory.getLogger(UndertowConfiguration.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<ObjectName> boundWorkers = new HashSet<>();
+
+    public UndertowConfiguration(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Static, as a {@link io.micrometer.core.instrument.binder.MeterBinder} bound while the {@link MeterRegistry} of
+     * this configuration is created.
+     */
+    @Bean
+    public static MeteredByteBufferPool undertowByteBufferPool(ServerProperties serverProperties, ApplicationProperties applicationProperties) {
+        ServerProperties.Undertow undertow = serverProperties.getUndertow();
+        // The defaults of Undertow.Builder
+        long maxMemory = Runtime.getRuntime().maxMemory();
+        boolean direct = maxMemory >= 64 * 1024 * 1024;
+        int bufferSize = maxMemory < 64 * 1024 * 1024 ? 512 : maxMemory < 128 * 1024 * 1024 ? 1024 : 1024 * 16 - 20;
+        if (undertow.getDirectBuffers() != null) {
+            direct = undertow.getDirectBuffers();
+        }
+        if (undertow.getBufferSize() != null) {
+            bufferSize = (int) undertow.getBufferSize().toBytes();
+        }
+        ApplicationProperties.Undertow properties = applicationProperties.getUndertow();
+        return new MeteredByteBufferPool(
+            new DefaultByteBufferPool(direct, bufferSize, properties.getBufferPoolMaxSize(), properties.getBufferPoolThreadLocalCacheSize())
+        );
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> undertowByteBufferPoolCustomizer(MeteredByteBufferPool byteBufferPool) {
+        return factory -> factory.addBuilderCustomizers(builder -> builder.setByteBufferPool(byteBufferPool));
+    }
+
+    @EventListener(ServletWebServerInitializedEvent.class)
+    public void onWebServerInitialized() {
+        bindWorkerMetrics();
+    }
+
+    /**
+     * Publish the XNIO workers registered in the platform MBean server, once each.
+     */
+    synchronized void bindWorkerMetrics() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (ObjectName worker : mBeanServer.queryNames(new ObjectName(XNIO_WORKERS), null)) {
+                if (boundWorkers.add(worker)) {
+                    log.debug("Publishing the metrics of the XNIO worker {}", worker);
+                    String name = worker.getKeyProperty("worker").replace("\"", "");
+                    gauge(mBeanServer, worker, name, "undertow.worker.threads.busy", "BusyWorkerThreadCount", "Busy worker threads");
+                    gauge(mBeanServer, worker, name, "undertow.worker.threads", "WorkerPoolSize", "Worker threads");
+                    gauge(mBeanServer, worker, name, "undertow.worker.threads.max", "MaxWorkerPoolSize", "Maximum worker threads");
+                    gauge(mBeanServer, worker, name, "undertow.worker.queue.size", "WorkerQueueSize", "Tasks waiting for a worker thread");
+                    gauge(mBeanServer, worker, name, "undertow.io.threads", "IoThreadCount", "I/O threads");
+                }
+            }
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void gauge(
+        MBeanServer mBeanServer,
+        ObjectName worker,
+        String name,
+        String meterName,
+        String attribute,
+        String description
+    ) {
+        ToDoubleFunction<MBeanServer> value = server -> {
+            try {
+                return ((Number) server.getAttribute(worker, attribute)).doubleValue();
+            } catch (JMException e) {
+                // The worker was shut down
+                return Double.NaN;
+            }
+        };
+        Gauge.builder(meterName, mBeanServer, value).description(description).tag("worker", name).register(meterRegistry);
+    }
+}
@@ -1,13 +1,24 @@
 package com.genome.munoz.config;
 
+import com.genome.munoz.web.filter.CacheControlFilter;
+import com.genome.munoz.web.filter.CompressedResponseCacheFilter;
+import com.genome.munoz.web.filter.ConcurrencyLimitFilter;
+import com.genome.munoz.web.filter.RateLimitFilter;
+import com.genome.munoz.web.filter.SqlStatisticsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import javax.servlet.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.boot.web.server.*;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
 import org.springframework.util.CollectionUtils;
@@ -61,6 +72,92 @@ public class WebConfigurer implements ServletContextInitializer {
         return new CorsFilter(source);
     }
 
+    /**
+     * Adaptive limits of the requests in flight of the REST API and of the management endpoints, before any other
+     * filter so that the rejected requests cost as little as possible.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(meterRegistry, applicationProperties.getConcurrencyLimit())
+        );
+        registration.addUrlPatterns("/api/*", "/management/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Per-request SQL statistics of the REST API, outside of the security filters so that their statements are included.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.sql-statistics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<SqlStatisticsFilter> sqlStatisticsFilter(
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        FilterRegistrationBean<SqlStatisticsFilter> registration = new FilterRegistrationBean<>(
+            new SqlStatisticsFilter(meterRegistry, applicationProperties.getSqlStatistics())
+        );
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * {@code Cache-Control} of the static resources and of the REST API, set before the security filters so that they
+     * keep it.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.http-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<CacheControlFilter> cacheControlFilter(ApplicationProperties applicationProperties) {
+        FilterRegistrationBean<CacheControlFilter> registration = new FilterRegistrationBean<>(
+            new CacheControlFilter(
+                applicationProperties.getHttpCache(),
+                Duration.ofDays(jHipsterProperties.getHttp().getCache().getTimeToLiveInDays())
+            )
+        );
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    /**
+     * Compressed bodies of the identical responses, inside the SQL statistics so that the {@code Server-Timing} header
+     * is added when the cached body is written.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<CompressedResponseCacheFilter> compressedResponseCacheFilter(
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        FilterRegistrationBean<CompressedResponseCacheFilter> registration = new FilterRegistrationBean<>(
+            new CompressedResponseCacheFilter(meterRegistry, applicationProperties.getResponseCache())
+        );
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        return registration;
+    }
+
+    /**
+     * Token buckets per client of the REST API, right after the security filters so that the client of a JWT is
+     * already authenticated.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+            new RateLimitFilter(meterRegistry, applicationProperties.getRateLimit())
+        );
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
     /**
      * Initializes H2 console.
      */
@@ -25,6 +25,10 @@ public class Greeting implements Serializable {
     @Column(name = "greeting")
     private String greeting;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     /**
      * A relationship
      */
@@ -61,6 +65,19 @@ public class Greeting implements Serializable {
         this.greeting = greeting;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Greeting version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Set<Messages> getMessages() {
         return this.messages;
     }
@@ -117,6 +134,7 @@ public class Greeting implements Serializable {
         return "Greeting{" +
             "id=" + getId() +
             ", greeting='" + getGreeting() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -28,6 +28,17 @@ public class Messages implements Serializable {
     @Column(name = "hire_date")
     private Instant hireDate;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    /**
+     * Client-supplied key of the upsert that created the message, so that a retried upsert does not create it again
+     */
+    @Schema(description = "Client-supplied key of the upsert that created the message")
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
     /**
      * Another side of the same relationship
      */
@@ -77,6 +88,32 @@ public class Messages implements Serializable {
         this.hireDate = hireDate;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Messages version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getIdempotencyKey() {
+        return this.idempotencyKey;
+    }
+
+    public Messages idempotencyKey(String idempotencyKey) {
+        this.setIdempotencyKey(idempotencyKey);
+        return this;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
     public Greeting getGreeting() {
         return this.greeting;
     }
@@ -116,6 +153,8 @@ public class Messages implements Serializable {
             "id=" + getId() +
             ", message='" + getMessage() + "'" +
             ", hireDate='" + getHireDate() + "'" +
+            ", version=" + getVersion() +
+            ", idempotencyKey='" + getIdempotencyKey() + "'" +
             "}";
     }
 }
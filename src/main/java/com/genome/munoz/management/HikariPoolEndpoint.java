@@ -0,0 +1,27 @@
+package com.genome.munoz.management;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /management/hikaripool}: state of the Hikari pools and decisions of the {@link HikariPoolSizingService}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.datasource.pool-sizing", name = "enabled", havingValue = "true")
+@Endpoint(id = "hikaripool")
+public class HikariPoolEndpoint {
+
+    private final HikariPoolSizingService hikariPoolSizingService;
+
+    public HikariPoolEndpoint(HikariPoolSizingService hikariPoolSizingService) {
+        this.hikariPoolSizingService = hikariPoolSizingService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> hikariPool() {
+        return hikariPoolSizingService.snapshot();
+    }
+}
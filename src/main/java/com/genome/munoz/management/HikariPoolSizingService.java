@@ -0,0 +1,283 @@
+package com.genome.munoz.management;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+
+/**
+ * Adjusts the {@code maximumPoolSize} of every Hikari pool, within the configured bounds, from the
+ * {@code hikaricp.connections.acquire} and {@code hikaricp.connections.usage} timers and the pending threads.
+ * <p>
+ * At each interval, the mean acquire time and the mean usage time (how long a connection is held, our proxy
+ * for the database latency) of the last interval are compared with their targets:
+ * <ul>
+ *     <li>a database slower than {@code max-usage-time} shrinks the pool, as more connections would only add load to it;</li>
+ *     <li>otherwise, threads waiting for a connection, or acquiring one slower than {@code target-acquire-time},
+ *     grow the pool;</li>
+ *     <li>a pool mostly idle shrinks by one connection.</li>
+ * </ul>
+ * The {@code minimumIdle} of a pool is kept within its size: lowered as it shrinks, and raised back, up to its
+ * configured value, as it grows.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.datasource.pool-sizing", name = "enabled", havingValue = "true")
+public class HikariPoolSizingService implements SchedulingConfigurer {
+
+    public static final String RESIZE_METER_NAME = "hikaricp.pool.resizes";
+
+    private final Logger log = LoggerFactory.getLogger(HikariPoolSizingService.class);
+
+    private final List<HikariDataSource> dataSources;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationProperties.Datasource.PoolSizing properties;
+
+    private final Map<String, TimerSnapshot> acquireSnapshots = new ConcurrentHashMap<>();
+
+    private final Map<String, TimerSnapshot> usageSnapshots = new ConcurrentHashMap<>();
+
+    private final Map<String, Decision> lastEvaluations = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> configuredMinimumIdles = new ConcurrentHashMap<>();
+
+    private final Deque<Decision> decisions = new ConcurrentLinkedDeque<>();
+
+    public HikariPoolSizingService(
+        List<HikariDataSource> dataSources,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.dataSources = dataSources;
+        this.meterRegistry = meterRegistry;
+        this.properties = applicationProperties.getDatasource().getPoolSizing();
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::resizePools, properties.getInterval().toMillis());
+    }
+
+    /**
+     * Evaluate every started pool and apply the resulting size.
+     */
+    public void resizePools() {
+        for (HikariDataSource dataSource : dataSources) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                resizePool(dataSource.getPoolName(), dataSource.getHikariConfigMXBean(), pool);
+            }
+        }
+    }
+
+    private void resizePool(String poolName, HikariConfigMXBean config, HikariPoolMXBean pool) {
+        double acquireMillis = meanMillisSinceLastRun(acquireSnapshots, "hikaricp.connections.acquire", poolName);
+        double usageMillis = meanMillisSinceLastRun(usageSnapshots, "hikaricp.connections.usage", poolName);
+        int current = config.getMaximumPoolSize();
+        Decision decision = decide(
+            poolName,
+            current,
+            acquireMillis,
+            usageMillis,
+            pool.getActiveConnections(),
+            pool.getThreadsAwaitingConnection()
+        );
+        lastEvaluations.put(poolName, decision);
+        if (decision.getTo() == current) {
+            return;
+        }
+        // minimumIdle follows the size down, and back up to its configured value when the pool grows again
+        int configuredMinimumIdle = configuredMinimumIdles.computeIfAbsent(poolName, name -> config.getMinimumIdle());
+        if (decision.getTo() > current) {
+            config.setMaximumPoolSize(decision.getTo());
+            config.setMinimumIdle(Math.min(configuredMinimumIdle, decision.getTo()));
+        } else {
+            config.setMinimumIdle(Math.min(configuredMinimumIdle, decision.getTo()));
+            config.setMaximumPoolSize(decision.getTo());
+        }
+        Counter
+            .builder(RESIZE_METER_NAME)
+            .description("Changes of maximumPoolSize made by the adaptive pool sizing")
+            .tag("pool", poolName)
+            .tag("reason", decision.getReason())
+            .register(meterRegistry)
+            .increment();
+        decisions.addFirst(decision);
+        while (decisions.size() > properties.getHistory()) {
+            decisions.pollLast();
+        }
+        log.info("Resized pool {} from {} to {} connections ({})", poolName, current, decision.getTo(), decision.getReason());
+    }
+
+    Decision decide(String poolName, int current, double acquireMillis, double usageMillis, int active, int pending) {
+        int lowerBound = properties.getMinimumPoolSize();
+        int upperBound = properties.getMaximumPoolSize();
+        int target = current;
+        String reason = "steady";
+        if (usageMillis > properties.getMaxUsageTime().toMillis()) {
+            target = current - properties.getStep();
+            reason = "db-latency";
+        } else if (pending > 0 || acquireMillis > properties.getTargetAcquireTime().toMillis()) {
+            target = current + properties.getStep();
+            reason = "acquire-wait";
+        } else if (active < current * properties.getIdleUtilization()) {
+            target = current - 1;
+            reason = "idle";
+        }
+        target = Math.max(lowerBound, Math.min(upperBound, target));
+        return new Decision(Instant.now(), poolName, current, target, reason, acquireMillis, usageMillis, active, pending);
+    }
+
+    private double meanMillisSinceLastRun(Map<String, TimerSnapshot> snapshots, String meterName, String poolName) {
+        Timer timer = meterRegistry.find(meterName).tag("pool", poolName).timer();
+        if (timer == null) {
+            return 0;
+        }
+        TimerSnapshot current = new TimerSnapshot(timer.count(), timer.totalTime(TimeUnit.MILLISECONDS));
+        TimerSnapshot previous = snapshots.put(poolName, current);
+        long count = current.count - (previous == null ? 0 : previous.count);
+        double total = current.totalMillis - (previous == null ? 0 : previous.totalMillis);
+        return count > 0 ? total / count : 0;
+    }
+
+    /**
+     * State of the pools and the latest resize decisions, newest first.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> pools = new LinkedHashMap<>();
+        for (HikariDataSource dataSource : dataSources) {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("maximumPoolSize", dataSource.getHikariConfigMXBean().getMaximumPoolSize());
+            pool.put("minimumIdle", dataSource.getHikariConfigMXBean().getMinimumIdle());
+            HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+            if (poolMXBean != null) {
+                pool.put("active", poolMXBean.getActiveConnections());
+                pool.put("idle", poolMXBean.getIdleConnections());
+                pool.put("pending", poolMXBean.getThreadsAwaitingConnection());
+            }
+            pool.put("lastEvaluation", lastEvaluations.get(dataSource.getPoolName()));
+            pools.put(dataSource.getPoolName(), pool);
+        }
+        Map<String, Object> bounds = new LinkedHashMap<>();
+        bounds.put("minimumPoolSize", properties.getMinimumPoolSize());
+        bounds.put("maximumPoolSize", properties.getMaximumPoolSize());
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("bounds", bounds);
+        snapshot.put("pools", pools);
+        snapshot.put("decisions", new ArrayList<>(decisions));
+        return snapshot;
+    }
+
+    private static final class TimerSnapshot {
+
+        private final long count;
+
+        private final double totalMillis;
+
+        private TimerSnapshot(long count, double totalMillis) {
+            this.count = count;
+            this.totalMillis = totalMillis;
+        }
+    }
+
+    /**
+     * One evaluation of a pool, and the size it led to.
+     */
+    public static final class Decision {
+
+        private final Instant timestamp;
+
+        private final String pool;
+
+        private final int from;
+
+        private final int to;
+
+        private final String reason;
+
+        private final double acquireMillis;
+
+        private final double usageMillis;
+
+        private final int active;
+
+        private final int pending;
+
+        Decision(
+            Instant timestamp,
+            String pool,
+            int from,
+            int to,
+            String reason,
+            double acquireMillis,
+            double usageMillis,
+            int active,
+            int pending
+        ) {
+            this.timestamp = timestamp;
+            this.pool = pool;
+            this.from = from;
+            this.to = to;
+            this.reason = reason;
+            this.acquireMillis = acquireMillis;
+            this.usageMillis = usageMillis;
+            this.active = active;
+            this.pending = pending;
+        }
+
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+
+        public String getPool() {
+            return pool;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public double getAcquireMillis() {
+            return acquireMillis;
+        }
+
+        public double getUsageMillis() {
+            return usageMillis;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+    }
+}
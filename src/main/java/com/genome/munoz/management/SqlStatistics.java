@@ -0,0 +1,105 @@
+package com.genome.munoz.management;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The SQL statements issued while serving a request, recorded by {@link SqlStatisticsDataSource}.
+ * <p>
+ * Statistics are bound to the request thread between {@link #start()} and {@link #stop()}, and only the connections
+ * obtained in between are instrumented. They are not thread-safe: work handed to other threads is not recorded.
+ */
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> selectRepetitions = new HashMap<>();
+
+    private int statements;
+
+    private long rows;
+
+    private long jdbcNanos;
+
+    private String mostRepeatedSelect;
+
+    private int mostRepeatedSelectCount;
+
+    SqlStatistics() {}
+
+    /**
+     * Start recording the statements of the current thread.
+     *
+     * @return the statistics, also returned by {@link #current()} until {@link #stop()}.
+     */
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return the statistics being recorded on the current thread, or {@code null}.
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    void statementExecuted(String sql, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+        if (sql != null && sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+            int count = selectRepetitions.merge(sql, 1, Integer::sum);
+            if (count > mostRepeatedSelectCount) {
+                mostRepeatedSelect = sql;
+                mostRepeatedSelectCount = count;
+            }
+        }
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    /**
+     * @return the number of statements executed, a JDBC batch counting as one.
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the number of rows read from the result sets.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the time spent executing the statements, without reading their result sets.
+     */
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    /**
+     * @return the {@code SELECT} executed the most times, or {@code null} if none was.
+     */
+    public String getMostRepeatedSelect() {
+        return mostRepeatedSelect;
+    }
+
+    public int getMostRepeatedSelectCount() {
+        return mostRepeatedSelectCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d statements, %d rows, %.3f ms", statements, rows, jdbcNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,162 @@
+package com.genome.munoz.management;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+
+/**
+ * Instrumentation of a {@link DataSource} recording its statements in the {@link SqlStatistics} of the current thread.
+ * <p>
+ * The data source is proxied as its own class, so that it can still be injected by type, e.g. as a
+ * {@code HikariDataSource}. Its connections are wrapped in JDK proxies, since a connection may be bound to the thread
+ * before the statistics are started, as by a test transaction. Only the statements created while statistics are
+ * recorded are wrapped in turn, with their result sets, to count executions and fetched rows.
+ */
+public final class SqlStatisticsDataSource {
+
+    private SqlStatisticsDataSource() {}
+
+    /**
+     * @return a proxy of the data source recording the statements of the connections it returns.
+     */
+    public static DataSource instrument(DataSource dataSource) {
+        ProxyFactory proxyFactory = new ProxyFactory(dataSource);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(
+            (MethodInterceptor) invocation -> {
+                Object result = invocation.proceed();
+                if (result instanceof Connection && "getConnection".equals(invocation.getMethod().getName())) {
+                    return proxy(Connection.class, new ConnectionHandler((Connection) result));
+                }
+                return result;
+            }
+        );
+        return (DataSource) proxyFactory.getProxy(dataSource.getClass().getClassLoader());
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlStatisticsDataSource.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        // Proxies are only equal to themselves, as the connection proxies of Spring and Hibernate
+        if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlStatisticsDataSource.invoke(proxy, target, method, args);
+            SqlStatistics statistics = SqlStatistics.current();
+            if (statistics == null) {
+                return result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            if (result instanceof CallableStatement) {
+                return proxy(CallableStatement.class, new StatementHandler((Statement) result, (Connection) proxy, sql, statistics));
+            }
+            if (result instanceof PreparedStatement) {
+                return proxy(PreparedStatement.class, new StatementHandler((Statement) result, (Connection) proxy, sql, statistics));
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, new StatementHandler((Statement) result, (Connection) proxy, null, statistics));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        private final Connection connection;
+
+        private final String preparedSql;
+
+        private final SqlStatistics statistics;
+
+        StatementHandler(Statement target, Connection connection, String preparedSql, SqlStatistics statistics) {
+            this.target = target;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getConnection".equals(name)) {
+                return connection;
+            }
+            Object result;
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    result = SqlStatisticsDataSource.invoke(proxy, target, method, args);
+                } finally {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+                    statistics.statementExecuted(sql, System.nanoTime() - start);
+                }
+            } else {
+                result = SqlStatisticsDataSource.invoke(proxy, target, method, args);
+            }
+            if (result instanceof ResultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, (Statement) proxy, statistics));
+            }
+            return result;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+
+        private final Statement statement;
+
+        private final SqlStatistics statistics;
+
+        ResultSetHandler(ResultSet target, Statement statement, SqlStatistics statistics) {
+            this.target = target;
+            this.statement = statement;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("getStatement".equals(method.getName())) {
+                return statement;
+            }
+            Object result = SqlStatisticsDataSource.invoke(proxy, target, method, args);
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                statistics.rowFetched();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.genome.munoz.repository;
+
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+/**
+ * Single-statement updates of versioned entities, shared by the repository fragments.
+ */
+final class ConditionalUpdates {
+
+    private ConditionalUpdates() {}
+
+    /**
+     * Run {@code update <entity> set <attributes>, version = version + 1 where id = :id [and version = :version]}.
+     * <p>
+     * The persistence context is flushed before and cleared after, as the update bypasses it.
+     *
+     * @return whether the entity was updated.
+     */
+    static boolean update(EntityManager entityManager, String entityName, Long id, Long expectedVersion, Map<String, Object> attributes) {
+        StringBuilder jpql = new StringBuilder("update ").append(entityName).append(" e set e.version = e.version + 1");
+        for (String attribute : attributes.keySet()) {
+            jpql.append(", e.").append(attribute).append(" = :").append(attribute);
+        }
+        jpql.append(" where e.id = :id");
+        if (expectedVersion != null) {
+            jpql.append(" and e.version = :version");
+        }
+        entityManager.flush();
+        Query query = entityManager.createQuery(jpql.toString()).setParameter("id", id);
+        attributes.forEach(query::setParameter);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        int updated = query.executeUpdate();
+        entityManager.clear();
+        return updated == 1;
+    }
+}
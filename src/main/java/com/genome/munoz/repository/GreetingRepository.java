@@ -1,7 +1,11 @@
 package com.genome.munoz.repository;
 
 import com.genome.munoz.domain.Greeting;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +13,34 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface GreetingRepository extends JpaRepository<Greeting, Long> {}
+public interface GreetingRepository extends GreetingRepositoryWithConditionalUpdate, JpaRepository<Greeting, Long> {
+    /**
+     * Delete the greetings with the given ids in one statement, without loading them.
+     */
+    @Modifying
+    @Query("delete from Greeting greeting where greeting.id in :ids")
+    int bulkDeleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select greeting.id as id, greeting.greeting as greeting, greeting.version as version from Greeting greeting order by greeting.id")
+    List<GreetingSummary> findAllSummaries();
+
+    @Query(
+        "select count(greeting.id) as rowCount, coalesce(max(greeting.id), 0) as maxId, " +
+        "coalesce(sum(greeting.version), 0) as versionSum from Greeting greeting"
+    )
+    TableVersion findTableVersion();
+
+    @Query("select greeting.version from Greeting greeting where greeting.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Projection of a greeting, without its messages.
+     */
+    interface GreetingSummary {
+        Long getId();
+
+        String getGreeting();
+
+        Long getVersion();
+    }
+}
@@ -0,0 +1,22 @@
+package com.genome.munoz.repository;
+
+import com.genome.munoz.domain.Greeting;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of {@link GreetingRepositoryWithConditionalUpdate}.
+ */
+public class GreetingRepositoryWithConditionalUpdateImpl implements GreetingRepositoryWithConditionalUpdate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public boolean updateIfVersionMatches(Long id, Long expectedVersion, Map<String, Object> attributes) {
+        return ConditionalUpdates.update(entityManager, Greeting.class.getSimpleName(), id, expectedVersion, attributes);
+    }
+}
@@ -0,0 +1,221 @@
+package com.genome.munoz.repository;
+
+import com.genome.munoz.domain.Greeting;
+import com.genome.munoz.domain.Messages;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@code messages_archive} table, where old messages are moved by batches, and the checkpoint of the last batch.
+ * <p>
+ * Batches are read in {@code (hire_date, id)} order with a keyset cursor, so that resuming after the checkpoint never
+ * scans the index entries of the messages already moved.
+ */
+@Repository
+@Transactional
+public class MessagesArchiveRepository {
+
+    private static final String CHECKPOINT_ID = "messages";
+
+    private static final String COLUMNS = "id, message, hire_date, greeting_id, version, idempotency_key";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MessagesArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lock the next messages hired before {@code cutoff}, until the end of the transaction.
+     *
+     * @param after the position of the last message already moved, or {@code null} to start from the oldest.
+     * @return the positions of at most {@code limit} messages, in {@code (hire_date, id)} order.
+     */
+    public List<Position> lockBatch(Instant cutoff, Position after, int limit) {
+        if (after == null) {
+            return jdbcTemplate.query(
+                "SELECT id, hire_date FROM messages WHERE hire_date < ? ORDER BY hire_date, id LIMIT ? FOR UPDATE",
+                statement -> bind(statement, cutoff, limit),
+                MessagesArchiveRepository::mapPosition
+            );
+        }
+        return jdbcTemplate.query(
+            "SELECT id, hire_date FROM messages WHERE hire_date < ? AND (hire_date > ? OR (hire_date = ? AND id > ?)) " +
+            "ORDER BY hire_date, id LIMIT ? FOR UPDATE",
+            statement -> bind(statement, cutoff, after.getHireDate(), after.getHireDate(), after.getId(), limit),
+            MessagesArchiveRepository::mapPosition
+        );
+    }
+
+    /**
+     * Copy the messages to the archive and delete them.
+     *
+     * @param cutoff the upper bound of their hire date, which spares PostgreSQL the other partitions.
+     * @return the number of messages moved.
+     */
+    public int moveToArchive(Instant cutoff, List<Long> ids, Instant archivedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String in = ids.stream().map(id -> "?").collect(Collectors.joining(", ", "(", ")"));
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(archivedAt);
+        args.add(cutoff);
+        args.addAll(ids);
+        jdbcTemplate.update(
+            "INSERT INTO messages_archive (" +
+            COLUMNS +
+            ", archived_at) SELECT " +
+            COLUMNS +
+            ", CAST(? AS TIMESTAMP) FROM messages WHERE hire_date < ? AND id IN " +
+            in,
+            statement -> bind(statement, args.toArray())
+        );
+        Object[] deleteArgs = args.subList(1, args.size()).toArray();
+        return jdbcTemplate.update("DELETE FROM messages WHERE hire_date < ? AND id IN " + in, statement -> bind(statement, deleteArgs));
+    }
+
+    /**
+     * @return the position of the last message moved by an unfinished run.
+     */
+    public Optional<Position> findCheckpoint() {
+        return jdbcTemplate
+            .query(
+                "SELECT last_id AS id, last_hire_date AS hire_date FROM messages_archive_checkpoint WHERE id = ?",
+                statement -> bind(statement, CHECKPOINT_ID),
+                MessagesArchiveRepository::mapPosition
+            )
+            .stream()
+            .findFirst();
+    }
+
+    public void saveCheckpoint(Position position) {
+        Object[] args = { position.getHireDate(), position.getId(), Instant.now(), CHECKPOINT_ID };
+        int updated = jdbcTemplate.update(
+            "UPDATE messages_archive_checkpoint SET last_hire_date = ?, last_id = ?, updated_at = ? WHERE id = ?",
+            statement -> bind(statement, args)
+        );
+        if (updated == 0) {
+            jdbcTemplate.update(
+                "INSERT INTO messages_archive_checkpoint (last_hire_date, last_id, updated_at, id) VALUES (?, ?, ?, ?)",
+                statement -> bind(statement, args)
+            );
+        }
+    }
+
+    public void clearCheckpoint() {
+        jdbcTemplate.update("DELETE FROM messages_archive_checkpoint WHERE id = ?", CHECKPOINT_ID);
+    }
+
+    /**
+     * @return the archived messages, with its greeting if it still exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Messages> findById(Long id) {
+        return jdbcTemplate
+            .query(
+                "SELECT a.id, a.message, a.hire_date, a.version, a.idempotency_key, a.greeting_id, g.greeting, g.version AS greeting_version " +
+                "FROM messages_archive a LEFT JOIN greeting g ON g.id = a.greeting_id WHERE a.id = ?",
+                statement -> bind(statement, id),
+                MessagesArchiveRepository::mapMessages
+            )
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Bind the arguments, instants as UTC timestamps as Hibernate does with {@code hibernate.jdbc.time_zone}.
+     */
+    private static void bind(PreparedStatement statement, Object... args) throws SQLException {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Instant) {
+                statement.setTimestamp(i + 1, Timestamp.from((Instant) args[i]), Calendar.getInstance(UTC));
+            } else {
+                statement.setObject(i + 1, args[i]);
+            }
+        }
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column, Calendar.getInstance(UTC));
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private static Position mapPosition(ResultSet rs, int rowNum) throws SQLException {
+        return new Position(instant(rs, "hire_date"), rs.getLong("id"));
+    }
+
+    private static Messages mapMessages(ResultSet rs, int rowNum) throws SQLException {
+        Messages messages = new Messages()
+            .id(rs.getLong("id"))
+            .message(rs.getString("message"))
+            .hireDate(instant(rs, "hire_date"))
+            .version(rs.getLong("version"))
+            .idempotencyKey(rs.getString("idempotency_key"));
+        long greetingId = rs.getLong("greeting_id");
+        if (!rs.wasNull() && rs.getObject("greeting_version") != null) {
+            messages.setGreeting(new Greeting().id(greetingId).greeting(rs.getString("greeting")).version(rs.getLong("greeting_version")));
+        }
+        return messages;
+    }
+
+    /**
+     * The position of a message in the {@code (hire_date, id)} order of the batches.
+     */
+    public static final class Position {
+
+        private final Instant hireDate;
+
+        private final long id;
+
+        public Position(Instant hireDate, long id) {
+            this.hireDate = hireDate;
+            this.id = id;
+        }
+
+        public Instant getHireDate() {
+            return hireDate;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Position)) {
+                return false;
+            }
+            Position position = (Position) o;
+            return id == position.id && Objects.equals(hireDate, position.hireDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hireDate, id);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + hireDate + ", " + id + ")";
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.genome.munoz.repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * DDL for the monthly range partitions of the {@code messages} table, named {@code messages_pYYYYMM}.
+ * <p>
+ * Partitioning only exists on PostgreSQL: on other databases {@link #isPartitioned()} is {@code false}.
+ */
+@Repository
+@Transactional
+public class MessagesPartitionRepository {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("messages_p(\\d{6})");
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MessagesPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isPartitioned() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            return false;
+        }
+        Integer partitioned = jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+            "WHERE c.relname = 'messages' AND pg_table_is_visible(c.oid)",
+            Integer.class
+        );
+        return partitioned != null && partitioned > 0;
+    }
+
+    /**
+     * Months of the monthly partitions currently attached to {@code messages}, oldest first.
+     */
+    public List<YearMonth> findMonthlyPartitions() {
+        return jdbcTemplate
+            .queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = 'messages' AND pg_table_is_visible(p.oid)",
+                String.class
+            )
+            .stream()
+            .map(MessagesPartitionRepository::monthOf)
+            .filter(Objects::nonNull)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    public void createMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS " +
+            partitionName(month) +
+            " PARTITION OF messages FOR VALUES FROM ('" +
+            month.atDay(1) +
+            "') TO ('" +
+            month.plusMonths(1).atDay(1) +
+            "')"
+        );
+    }
+
+    public void detachMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE messages DETACH PARTITION " + partitionName(month));
+    }
+
+    public void dropMonthlyPartition(YearMonth month) {
+        detachMonthlyPartition(month);
+        jdbcTemplate.execute("DROP TABLE " + partitionName(month));
+    }
+
+    static String partitionName(YearMonth month) {
+        return "messages_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        return matcher.matches() ? YearMonth.parse(matcher.group(1), PARTITION_SUFFIX) : null;
+    }
+}
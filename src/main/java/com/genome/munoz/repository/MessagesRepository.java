@@ -1,7 +1,13 @@
 package com.genome.munoz.repository;
 
 import com.genome.munoz.domain.Messages;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +15,148 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MessagesRepository extends JpaRepository<Messages, Long> {}
+public interface MessagesRepository extends MessagesRepositoryWithConditionalUpdate, JpaRepository<Messages, Long> {
+    /**
+     * Columns of a {@link MessagesSummary}, to complete with the {@code from} clause.
+     */
+    String SUMMARY_SELECT =
+        "select messages.id as id, messages.message as message, messages.hireDate as hireDate, messages.version as version, " +
+        "messages.idempotencyKey as idempotencyKey, " +
+        "greeting.id as greetingId, greeting.greeting as greetingGreeting, greeting.version as greetingVersion ";
+
+    /**
+     * Latest messages, newest first.
+     */
+    @Query(SUMMARY_SELECT + "from Messages messages left join messages.greeting greeting order by messages.id desc")
+    List<MessagesSummary> findLatest(Pageable pageable);
+
+    /**
+     * First page of the messages hired in {@code [from, to)}, in {@code (hireDate, id)} order.
+     */
+    @Query(
+        SUMMARY_SELECT +
+        "from Messages messages left join messages.greeting greeting " +
+        "where messages.hireDate >= :from and messages.hireDate < :to " +
+        "order by messages.hireDate asc, messages.id asc"
+    )
+    List<MessagesSummary> findByHireDateRange(@Param("from") Instant from, @Param("to") Instant to, Pageable pageable);
+
+    /**
+     * Next page of the messages hired in {@code [from, to)}, after the {@code (afterHireDate, afterId)} keyset cursor.
+     * <p>
+     * The redundant {@code hireDate >= :afterHireDate} bound lets the planner start the index range scan at the cursor.
+     */
+    @Query(
+        SUMMARY_SELECT +
+        "from Messages messages left join messages.greeting greeting " +
+        "where messages.hireDate >= :from and messages.hireDate < :to " +
+        "and messages.hireDate >= :afterHireDate " +
+        "and (messages.hireDate > :afterHireDate or messages.id > :afterId) " +
+        "order by messages.hireDate asc, messages.id asc"
+    )
+    List<MessagesSummary> findByHireDateRangeAfter(
+        @Param("from") Instant from,
+        @Param("to") Instant to,
+        @Param("afterHireDate") Instant afterHireDate,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Ids of up to a page of the messages hired in {@code [from, to)}, in index order.
+     */
+    @Query(
+        "select messages.id from Messages messages where messages.hireDate >= :from and messages.hireDate < :to " +
+        "order by messages.hireDate asc, messages.id asc"
+    )
+    List<Long> findIdsByHireDateRange(@Param("from") Instant from, @Param("to") Instant to, Pageable pageable);
+
+    @Query("select messages.id from Messages messages where messages.greeting.id in :greetingIds")
+    List<Long> findIdsByGreetingIdIn(@Param("greetingIds") Collection<Long> greetingIds);
+
+    @Query("select messages.hireDate from Messages messages where messages.id = :id")
+    Optional<Instant> findHireDateById(@Param("id") Long id);
+
+    /**
+     * Distinct hire dates of the messages with the given ids, to refresh their statistics.
+     */
+    @Query("select distinct messages.hireDate from Messages messages where messages.id in :ids")
+    List<Instant> findHireDatesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct messages.hireDate from Messages messages where messages.greeting.id in :greetingIds")
+    List<Instant> findHireDatesByGreetingIdIn(@Param("greetingIds") Collection<Long> greetingIds);
+
+    /**
+     * Delete the messages with the given ids in one statement, without loading them.
+     */
+    @Modifying
+    @Query("delete from Messages messages where messages.id in :ids")
+    int bulkDeleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Unlink the messages of the given greetings, so that the greetings can be deleted.
+     */
+    @Modifying
+    @Query(
+        "update Messages messages set messages.greeting = null, messages.version = messages.version + 1 " +
+        "where messages.greeting.id in :greetingIds"
+    )
+    int detachFromGreetings(@Param("greetingIds") Collection<Long> greetingIds);
+
+    /**
+     * The messages with the given ids, with their greeting.
+     */
+    @Query(SUMMARY_SELECT + "from Messages messages left join messages.greeting greeting where messages.id in :ids")
+    List<MessagesSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select count(messages.id) as rowCount, coalesce(max(messages.id), 0) as maxId, " +
+        "coalesce(sum(messages.version), 0) as versionSum from Messages messages"
+    )
+    TableVersion findTableVersion();
+
+    @Query("select min(messages.id) from Messages messages")
+    Long findMinId();
+
+    @Query("select max(messages.id) from Messages messages")
+    Long findMaxId();
+
+    /**
+     * Next page of the text of the messages with an id in {@code (afterId, lastId]}, in id order.
+     */
+    @Query(
+        "select messages.id as id, messages.message as message from Messages messages " +
+        "where messages.id > :afterId and messages.id <= :lastId order by messages.id asc"
+    )
+    List<MessageText> findTextByIdRange(@Param("afterId") long afterId, @Param("lastId") long lastId, Pageable pageable);
+
+    /**
+     * Projection of a message and its greeting, with only the columns returned by the REST layer.
+     */
+    interface MessagesSummary {
+        Long getId();
+
+        String getMessage();
+
+        Instant getHireDate();
+
+        Long getVersion();
+
+        String getIdempotencyKey();
+
+        Long getGreetingId();
+
+        String getGreetingGreeting();
+
+        Long getGreetingVersion();
+    }
+
+    /**
+     * Projection of the text of a message, for the search index.
+     */
+    interface MessageText {
+        Long getId();
+
+        String getMessage();
+    }
+}
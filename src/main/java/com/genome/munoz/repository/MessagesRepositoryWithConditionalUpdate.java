@@ -0,0 +1,18 @@
+package com.genome.munoz.repository;
+
+import java.util.Map;
+
+/**
+ * Single-statement optimistic updates of the Messages entity.
+ */
+public interface MessagesRepositoryWithConditionalUpdate {
+    /**
+     * Set the given attributes and increment the version, with one {@code UPDATE} and without loading the entity.
+     *
+     * @param id the id of the messages to update.
+     * @param expectedVersion the version the messages must have, or {@code null} to update it whatever its version.
+     * @param attributes the new values, by attribute name.
+     * @return whether the messages was updated: {@code false} if it does not exist or has another version.
+     */
+    boolean updateIfVersionMatches(Long id, Long expectedVersion, Map<String, Object> attributes);
+}
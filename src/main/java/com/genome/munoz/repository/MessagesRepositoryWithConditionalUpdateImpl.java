@@ -0,0 +1,22 @@
+package com.genome.munoz.repository;
+
+import com.genome.munoz.domain.Messages;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of {@link MessagesRepositoryWithConditionalUpdate}.
+ */
+public class MessagesRepositoryWithConditionalUpdateImpl implements MessagesRepositoryWithConditionalUpdate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public boolean updateIfVersionMatches(Long id, Long expectedVersion, Map<String, Object> attributes) {
+        return ConditionalUpdates.update(entityManager, Messages.class.getSimpleName(), id, expectedVersion, attributes);
+    }
+}
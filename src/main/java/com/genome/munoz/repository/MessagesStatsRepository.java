@@ -0,0 +1,162 @@
+package com.genome.munoz.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TimeZone;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@code messages_daily_stats} rollup table: the number of messages per greeting and per UTC day of their hire
+ * date, archived messages included.
+ * <p>
+ * Days are never incremented in place: a range of days is recomputed from the {@code messages} and
+ * {@code messages_archive} tables, which an index range scan on {@code hire_date} keeps cheap, so that a lost or
+ * repeated refresh can never leave a wrong count behind.
+ */
+@Repository
+@Transactional
+public class MessagesStatsRepository {
+
+    /**
+     * The {@code greeting_id} of the messages without greeting.
+     */
+    public static final long NO_GREETING_ID = 0;
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MessagesStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Replace the rollups of the days in {@code [from, to)} with the counts of the messages hired on those days.
+     *
+     * @return the number of rollup rows written.
+     */
+    public int recompute(LocalDate from, LocalDate to) {
+        Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant end = to.atStartOfDay(ZoneOffset.UTC).toInstant();
+        jdbcTemplate.update("DELETE FROM messages_daily_stats WHERE hire_day >= ? AND hire_day < ?", statement -> bind(statement, from, to));
+        // hire_date holds UTC timestamps, so its date is the UTC day
+        return jdbcTemplate.update(
+            "INSERT INTO messages_daily_stats (hire_day, greeting_id, message_count) " +
+            "SELECT CAST(hire_date AS DATE), COALESCE(greeting_id, " +
+            NO_GREETING_ID +
+            "), COUNT(*) FROM (" +
+            "SELECT hire_date, greeting_id FROM messages WHERE hire_date >= ? AND hire_date < ? " +
+            "UNION ALL SELECT hire_date, greeting_id FROM messages_archive WHERE hire_date >= ? AND hire_date < ?" +
+            ") m GROUP BY CAST(hire_date AS DATE), COALESCE(greeting_id, " +
+            NO_GREETING_ID +
+            ")",
+            statement -> bind(statement, start, end, start, end)
+        );
+    }
+
+    /**
+     * @return the first UTC day on or after {@code from} on which a message, possibly archived, was hired.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDate> findFirstHireDay(LocalDate from) {
+        Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<Instant> first = jdbcTemplate.query(
+            "SELECT MIN(hire_date) AS hire_date FROM messages WHERE hire_date >= ? " +
+            "UNION ALL SELECT MIN(hire_date) AS hire_date FROM messages_archive WHERE hire_date >= ?",
+            statement -> bind(statement, start, start),
+            (rs, rowNum) -> instant(rs, "hire_date")
+        );
+        return first.stream().filter(Objects::nonNull).min(Instant::compareTo).map(hireDate -> LocalDate.ofInstant(hireDate, ZoneOffset.UTC));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return jdbcTemplate.query("SELECT 1 FROM messages_daily_stats LIMIT 1", (rs, rowNum) -> rs.getInt(1)).isEmpty();
+    }
+
+    /**
+     * @param greetingId the greeting to count the messages of, {@link #NO_GREETING_ID} for the messages without
+     * greeting, or {@code null} for all greetings.
+     * @return the rollups of the days in {@code [from, to)}, in {@code (day, greeting)} order.
+     */
+    @Transactional(readOnly = true)
+    public List<DailyCount> findByDayRange(LocalDate from, LocalDate to, Long greetingId) {
+        String sql =
+            "SELECT hire_day, greeting_id, message_count FROM messages_daily_stats WHERE hire_day >= ? AND hire_day < ? " +
+            (greetingId != null ? "AND greeting_id = ? " : "") +
+            "ORDER BY hire_day, greeting_id";
+        Object[] args = greetingId != null ? new Object[] { from, to, greetingId } : new Object[] { from, to };
+        return jdbcTemplate.query(sql, statement -> bind(statement, args), MessagesStatsRepository::mapDailyCount);
+    }
+
+    /**
+     * Bind the arguments, instants as UTC timestamps as Hibernate does with {@code hibernate.jdbc.time_zone}.
+     */
+    private static void bind(PreparedStatement statement, Object... args) throws SQLException {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Instant) {
+                statement.setTimestamp(i + 1, Timestamp.from((Instant) args[i]), Calendar.getInstance(UTC));
+            } else {
+                statement.setObject(i + 1, args[i]);
+            }
+        }
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column, Calendar.getInstance(UTC));
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private static DailyCount mapDailyCount(ResultSet rs, int rowNum) throws SQLException {
+        return new DailyCount(rs.getObject("hire_day", LocalDate.class), rs.getLong("greeting_id"), rs.getLong("message_count"));
+    }
+
+    /**
+     * The number of messages of a greeting hired on a day.
+     */
+    public static final class DailyCount {
+
+        private final LocalDate day;
+
+        private final long greetingId;
+
+        private final long count;
+
+        public DailyCount(LocalDate day, long greetingId, long count) {
+            this.day = day;
+            this.greetingId = greetingId;
+            this.count = count;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        /**
+         * @return the id of the greeting, or {@link #NO_GREETING_ID}.
+         */
+        public long getGreetingId() {
+            return greetingId;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + day + ", " + greetingId + ", " + count + ")";
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.genome.munoz.repository;
+
+import com.genome.munoz.domain.Greeting;
+import com.genome.munoz.domain.Messages;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Idempotent upserts of messages, keyed by their {@code idempotency_key} and {@code hire_date}, with a single statement
+ * per batch: {@code INSERT ... ON CONFLICT} on PostgreSQL and {@code MERGE} on other databases (H2). Both match the
+ * unique index on these columns, so a key sent again with another hire date creates a second message.
+ * <p>
+ * The message with the same key and hire date is updated instead, and its version only incremented if its text or greeting changed,
+ * so that a retried upsert leaves it as it is. Both statements return the stored rows, which are never read again.
+ * <p>
+ * New ids are read from {@code sequence_generator}: with its pooled optimizer, Hibernate only allocates the ids up to
+ * the sequence values it reads itself, so the values read here are never allocated twice.
+ */
+@Repository
+@Transactional
+public class MessagesUpsertRepository {
+
+    /**
+     * Messages per statement, well within the 32767 bind parameters of PostgreSQL.
+     */
+    static final int MAX_BATCH_SIZE = 500;
+
+    private static final String COLUMNS = "id, message, hire_date, greeting_id, version, idempotency_key";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgresql;
+
+    public MessagesUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert the messages, or update those with an existing idempotency key and hire date.
+     *
+     * @param messages the messages to upsert, with distinct idempotency keys and a hire date.
+     * @return the stored messages, in no particular order.
+     */
+    public List<Messages> upsert(List<Messages> messages) {
+        List<Messages> stored = new ArrayList<>(messages.size());
+        for (int from = 0; from < messages.size(); from += MAX_BATCH_SIZE) {
+            List<Messages> batch = messages.subList(from, Math.min(messages.size(), from + MAX_BATCH_SIZE));
+            String sql = isPostgresql() ? insertOnConflict(batch.size()) : merge(batch.size());
+            stored.addAll(jdbcTemplate.query(sql, statement -> bind(statement, batch), MessagesUpsertRepository::mapRow));
+        }
+        return stored;
+    }
+
+    private boolean isPostgresql() {
+        if (postgresql == null) {
+            postgresql =
+                jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())
+                );
+        }
+        return postgresql;
+    }
+
+    private static String insertOnConflict(int rows) {
+        return (
+            "INSERT INTO messages AS m (" +
+            COLUMNS +
+            ") VALUES " +
+            repeat("(nextval('sequence_generator'), ?, ?, ?, 0, ?)", rows) +
+            " ON CONFLICT (idempotency_key, hire_date) DO UPDATE SET message = excluded.message, greeting_id = excluded.greeting_id, " +
+            "version = CASE WHEN (m.message, m.greeting_id) IS DISTINCT FROM (excluded.message, excluded.greeting_id) " +
+            "THEN m.version + 1 ELSE m.version END " +
+            "RETURNING " +
+            COLUMNS
+        );
+    }
+
+    private static String merge(int rows) {
+        // The columns of the VALUES table are named C1 to C4
+        return (
+            "SELECT " +
+            COLUMNS +
+            " FROM FINAL TABLE (MERGE INTO messages m USING (VALUES " +
+            repeat("(CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP), CAST(? AS BIGINT), CAST(? AS VARCHAR(64)))", rows) +
+            ") s ON m.idempotency_key = s.C4 AND m.hire_date = s.C2 " +
+            "WHEN MATCHED THEN UPDATE SET message = s.C1, greeting_id = s.C3, " +
+            "version = CASE WHEN m.message IS DISTINCT FROM s.C1 OR m.greeting_id IS DISTINCT FROM s.C3 " +
+            "THEN m.version + 1 ELSE m.version END " +
+            "WHEN NOT MATCHED THEN INSERT (" +
+            COLUMNS +
+            ") VALUES (NEXT VALUE FOR sequence_generator, s.C1, s.C2, s.C3, 0, s.C4))"
+        );
+    }
+
+    private static String repeat(String row, int rows) {
+        return IntStream.range(0, rows).mapToObj(i -> row).collect(Collectors.joining(", "));
+    }
+
+    private static void bind(PreparedStatement statement, List<Messages> batch) throws SQLException {
+        int index = 1;
+        for (Messages messages : batch) {
+            statement.setString(index++, messages.getMessage());
+            statement.setTimestamp(index++, Timestamp.from(messages.getHireDate()), Calendar.getInstance(UTC));
+            if (messages.getGreeting() != null && messages.getGreeting().getId() != null) {
+                statement.setLong(index++, messages.getGreeting().getId());
+            } else {
+                statement.setNull(index++, Types.BIGINT);
+            }
+            statement.setString(index++, messages.getIdempotencyKey());
+        }
+    }
+
+    private static Messages mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Messages messages = new Messages()
+            .id(rs.getLong("id"))
+            .message(rs.getString("message"))
+            .hireDate(rs.getTimestamp("hire_date", Calendar.getInstance(UTC)).toInstant())
+            .version(rs.getLong("version"))
+            .idempotencyKey(rs.getString("idempotency_key"));
+        long greetingId = rs.getLong("greeting_id");
+        if (!rs.wasNull()) {
+            messages.setGreeting(new Greeting().id(greetingId));
+        }
+        return messages;
+    }
+}
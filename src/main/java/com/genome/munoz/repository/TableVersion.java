@@ -0,0 +1,13 @@
+package com.genome.munoz.repository;
+
+/**
+ * Projection of the version of a whole table of versioned entities, which any insert, update or delete changes: ids
+ * only grow, and every update increments the version of the entity.
+ */
+public interface TableVersion {
+    Long getRowCount();
+
+    Long getMaxId();
+
+    Long getVersionSum();
+}
@@ -0,0 +1,138 @@
+package com.genome.munoz.service;
+
+import com.genome.munoz.repository.GreetingRepository;
+import com.genome.munoz.repository.MessagesRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deletes greetings and messages in bulk, with {@code delete ... where id in (...)} statements instead of loading and
+ * deleting each entity.
+ * <p>
+ * Ids are deleted in chunks of {@link #CHUNK_SIZE}, a power of two: with {@code in_clause_parameter_padding}, every
+ * full chunk is the same statement, and the last one is padded to the next power of two. Each chunk is committed in its
+ * own transaction, so that a large purge neither holds its locks nor grows a single transaction until it ends; a failed
+ * purge leaves the chunks already committed deleted, and can be retried.
+ */
+@Service
+public class BulkDeleteService {
+
+    static final int CHUNK_SIZE = 1024;
+
+    private final Logger log = LoggerFactory.getLogger(BulkDeleteService.class);
+
+    private final GreetingRepository greetingRepository;
+
+    private final MessagesRepository messagesRepository;
+
+    private final MessagesSearchService messagesSearchService;
+
+    private final MessagesStatsService messagesStatsService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public BulkDeleteService(
+        GreetingRepository greetingRepository,
+        MessagesRepository messagesRepository,
+        MessagesSearchService messagesSearchService,
+        MessagesStatsService messagesStatsService,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.greetingRepository = greetingRepository;
+        this.messagesRepository = messagesRepository;
+        this.messagesSearchService = messagesSearchService;
+        this.messagesStatsService = messagesStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Delete the messages with the given ids.
+     *
+     * @param ids the ids of the messages, unknown ones being ignored.
+     * @return the number of deleted messages.
+     */
+    public long deleteMessages(Collection<Long> ids) {
+        long deleted = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            deleted += transactionTemplate.execute(status -> deleteMessagesChunk(chunk));
+        }
+        log.debug("Deleted {} messages by id", deleted);
+        return deleted;
+    }
+
+    /**
+     * Delete the messages hired in {@code [from, to)}.
+     *
+     * @return the number of deleted messages.
+     */
+    public long deleteMessagesByHireDate(Instant from, Instant to) {
+        long start = System.currentTimeMillis();
+        PageRequest chunk = PageRequest.of(0, CHUNK_SIZE);
+        long deleted = 0;
+        int chunkDeleted;
+        do {
+            // Deleted rows leave the range, so each chunk is the first page again
+            chunkDeleted =
+                transactionTemplate.execute(status -> deleteMessagesChunk(messagesRepository.findIdsByHireDateRange(from, to, chunk)));
+            deleted += chunkDeleted;
+        } while (chunkDeleted > 0);
+        log.info("Deleted {} messages hired from {} to {} in {} ms", deleted, from, to, System.currentTimeMillis() - start);
+        return deleted;
+    }
+
+    /**
+     * Delete the greetings with the given ids, and either delete their messages or unlink them.
+     *
+     * @param ids the ids of the greetings, unknown ones being ignored.
+     * @param withMessages whether to delete the messages of the greetings, rather than keeping them without greeting.
+     * @return the number of deleted greetings.
+     */
+    public long deleteGreetings(Collection<Long> ids, boolean withMessages) {
+        long deleted = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            deleted +=
+                transactionTemplate.execute(status -> {
+                    if (withMessages) {
+                        // Bounded by the messages of one chunk of greetings, not by CHUNK_SIZE
+                        for (List<Long> messagesChunk : chunks(messagesRepository.findIdsByGreetingIdIn(chunk))) {
+                            deleteMessagesChunk(messagesChunk);
+                        }
+                    } else {
+                        messagesStatsService.hireDatesChanged(messagesRepository.findHireDatesByGreetingIdIn(chunk));
+                        messagesRepository.detachFromGreetings(chunk);
+                    }
+                    return greetingRepository.bulkDeleteByIds(chunk);
+                });
+        }
+        log.debug("Deleted {} greetings by id", deleted);
+        return deleted;
+    }
+
+    private int deleteMessagesChunk(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        messagesStatsService.hireDatesChanged(messagesRepository.findHireDatesByIdIn(ids));
+        int deleted = messagesRepository.bulkDeleteByIds(ids);
+        messagesSearchService.messagesDeleted(ids);
+        return deleted;
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(distinct.size(), from + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+}
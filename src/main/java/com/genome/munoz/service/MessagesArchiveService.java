@@ -0,0 +1,184 @@
+package com.genome.munoz.service;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.genome.munoz.repository.MessagesArchiveRepository;
+import com.genome.munoz.repository.MessagesArchiveRepository.Position;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves the messages hired more than {@code age} ago from the {@code messages} table to {@code messages_archive}.
+ * <p>
+ * Messages are moved by batches of {@code batch-size}, oldest first, each batch with its checkpoint in its own
+ * transaction, and with a {@code pause} in between to leave room for the regular traffic. A run stops after
+ * {@code max-run-time}, or when the application stops, and the next one resumes from the checkpoint. Progress is
+ * published as the {@code messages.archive.*} meters.
+ * <p>
+ * A run takes up to {@code max-run-time}, so the cron only starts it on a dedicated thread, instead of holding one of
+ * the threads of the shared task scheduler for that long. It is skipped if the previous run is still in progress.
+ */
+@Service
+public class MessagesArchiveService {
+
+    static final String MOVED_METER_NAME = "messages.archive.moved";
+
+    static final String BATCH_METER_NAME = "messages.archive.batch";
+
+    static final String CHECKPOINT_METER_NAME = "messages.archive.checkpoint";
+
+    private final Logger log = LoggerFactory.getLogger(MessagesArchiveService.class);
+
+    private final MessagesArchiveRepository messagesArchiveRepository;
+
+    private final MessagesSearchService messagesSearchService;
+
+    private final ApplicationProperties.Messages.Archive properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter movedCounter;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong checkpointEpochSecond = new AtomicLong();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("messages-archive-"));
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public MessagesArchiveService(
+        MessagesArchiveRepository messagesArchiveRepository,
+        MessagesSearchService messagesSearchService,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.messagesArchiveRepository = messagesArchiveRepository;
+        this.messagesSearchService = messagesSearchService;
+        this.properties = applicationProperties.getMessages().getArchive();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.movedCounter =
+            Counter.builder(MOVED_METER_NAME).description("Messages moved to the archive").baseUnit("messages").register(meterRegistry);
+        this.batchTimer = Timer.builder(BATCH_METER_NAME).description("Duration of the archival batches").register(meterRegistry);
+        Gauge
+            .builder(CHECKPOINT_METER_NAME, checkpointEpochSecond, AtomicLong::get)
+            .description("Hire date of the last archived message of the current run, in epoch seconds")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${application.messages.archive.cron:0 0 3 * * ?}")
+    public void archive() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Skipping the archival of the messages, the previous run is still in progress");
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    archive(Instant.now().minus(properties.getAge()));
+                } catch (RuntimeException e) {
+                    log.error("Archival of the messages failed, the next run resumes from the checkpoint", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Interrupt the run in progress, which stops after its current batch.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Move the messages hired before {@code cutoff}, from the checkpoint of the previous run if it did not finish.
+     *
+     * @return the number of messages moved.
+     */
+    long archive(Instant cutoff) {
+        long start = System.currentTimeMillis();
+        long deadline = start + properties.getMaxRunTime().toMillis();
+        Position checkpoint = messagesArchiveRepository.findCheckpoint().orElse(null);
+        if (checkpoint != null) {
+            log.info("Resuming the archival of the messages hired before {} after {}", cutoff, checkpoint);
+        }
+        long moved = 0;
+        while (true) {
+            Position after = checkpoint;
+            List<Position> batch = batchTimer.record(() -> transactionTemplate.execute(status -> moveBatch(cutoff, after)));
+            if (batch.isEmpty()) {
+                break;
+            }
+            moved += batch.size();
+            movedCounter.increment(batch.size());
+            checkpoint = batch.get(batch.size() - 1);
+            checkpointEpochSecond.set(checkpoint.getHireDate().getEpochSecond());
+            if (System.currentTimeMillis() >= deadline) {
+                log.info("Archived {} messages in {} ms, the next run resumes after {}", moved, System.currentTimeMillis() - start, checkpoint);
+                return moved;
+            }
+            if (!pause()) {
+                log.info("Archival interrupted after {} messages, the next run resumes after {}", moved, checkpoint);
+                return moved;
+            }
+        }
+        log.info("Archived {} messages hired before {} in {} ms", moved, cutoff, System.currentTimeMillis() - start);
+        return moved;
+    }
+
+    /**
+     * Move the next batch and save its checkpoint, or clear the checkpoint when all messages are moved.
+     */
+    private List<Position> moveBatch(Instant cutoff, Position after) {
+        List<Position> batch = messagesArchiveRepository.lockBatch(cutoff, after, properties.getBatchSize());
+        if (batch.isEmpty()) {
+            messagesArchiveRepository.clearCheckpoint();
+            return batch;
+        }
+        List<Long> ids = batch.stream().map(Position::getId).collect(Collectors.toList());
+        messagesArchiveRepository.moveToArchive(cutoff, ids, Instant.now());
+        messagesArchiveRepository.saveCheckpoint(batch.get(batch.size() - 1));
+        messagesSearchService.messagesDeleted(ids);
+        return batch;
+    }
+
+    private boolean pause() {
+        if (properties.getPause().isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
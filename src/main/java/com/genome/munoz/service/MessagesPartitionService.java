@@ -0,0 +1,85 @@
+package com.genome.munoz.service;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.genome.munoz.repository.MessagesPartitionRepository;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the monthly partitions of the {@code messages} table.
+ * <p>
+ * Partitions for the current month and the next {@code premake-months} are created ahead of time, so that new rows
+ * never fall into the default partition. When {@code retention-months} is set, partitions entirely older than the
+ * retention window are detached, or dropped, which is much cheaper than deleting their rows.
+ * <p>
+ * This is a no-op when the table is not partitioned, as with H2 in dev and tests.
+ */
+@Service
+public class MessagesPartitionService {
+
+    private final Logger log = LoggerFactory.getLogger(MessagesPartitionService.class);
+
+    private final MessagesPartitionRepository messagesPartitionRepository;
+
+    private final MessagesStatsService messagesStatsService;
+
+    private final ApplicationProperties.Messages.Partitioning properties;
+
+    public MessagesPartitionService(
+        MessagesPartitionRepository messagesPartitionRepository,
+        MessagesStatsService messagesStatsService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.messagesPartitionRepository = messagesPartitionRepository;
+        this.messagesStatsService = messagesStatsService;
+        this.properties = applicationProperties.getMessages().getPartitioning();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.messages.partitioning.cron:0 30 2 * * ?}")
+    public void maintainPartitions() {
+        if (!properties.isEnabled() || !messagesPartitionRepository.isPartitioned()) {
+            return;
+        }
+        maintainPartitions(YearMonth.now(ZoneOffset.UTC));
+    }
+
+    void maintainPartitions(YearMonth currentMonth) {
+        for (int i = 0; i <= properties.getPremakeMonths(); i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            try {
+                messagesPartitionRepository.createMonthlyPartition(month);
+            } catch (DataAccessException e) {
+                // Typically rows of that month already sit in the default partition
+                log.warn("Could not create the messages partition for {}: {}", month, e.getMessage());
+            }
+        }
+        if (properties.getRetentionMonths() <= 0) {
+            return;
+        }
+        YearMonth oldestRetained = currentMonth.minusMonths(properties.getRetentionMonths());
+        for (YearMonth month : messagesPartitionRepository.findMonthlyPartitions()) {
+            if (!month.isBefore(oldestRetained)) {
+                break;
+            }
+            if (properties.getRetentionAction() == ApplicationProperties.Messages.Partitioning.RetentionAction.DROP) {
+                log.info("Dropping expired messages partition for {}", month);
+                messagesPartitionRepository.dropMonthlyPartition(month);
+            } else {
+                log.info("Detaching expired messages partition for {}", month);
+                messagesPartitionRepository.detachMonthlyPartition(month);
+            }
+            messagesStatsService.hireDatesChanged(
+                month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant(),
+                month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant()
+            );
+        }
+    }
+}
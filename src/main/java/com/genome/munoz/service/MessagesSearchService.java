@@ -0,0 +1,379 @@
+package com.genome.munoz.service;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.genome.munoz.domain.Messages;
+import com.genome.munoz.repository.MessagesRepository;
+import com.genome.munoz.service.dto.MessagesDTO;
+import com.genome.munoz.service.mapper.MessagesMapper;
+import com.genome.munoz.service.search.MessagesSearchIndex;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Full-text search over the text of the messages, backed by a {@link MessagesSearchIndex}.
+ * <p>
+ * The index is kept up to date from the inserts, updates and deletes of {@link Messages} committed through Hibernate
+ * by this instance. At startup it is restored from the snapshot file when there is one, and caught up with the messages
+ * created since; otherwise, or if the snapshot does not match the database, it is rebuilt by reading the messages in
+ * parallel id ranges.
+ */
+@Service
+public class MessagesSearchService implements SchedulingConfigurer {
+
+    private final Logger log = LoggerFactory.getLogger(MessagesSearchService.class);
+
+    private final MessagesRepository messagesRepository;
+
+    private final MessagesMapper messagesMapper;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties.Messages.Search properties;
+
+    private final Object indexMonitor = new Object();
+
+    private volatile MessagesSearchIndex index = new MessagesSearchIndex();
+
+    /**
+     * Writes committed while the index is rebuilt, replayed on the new index; {@code null} outside of a rebuild.
+     */
+    private List<Runnable> pendingWrites;
+
+    public MessagesSearchService(
+        MessagesRepository messagesRepository,
+        MessagesMapper messagesMapper,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties
+    ) {
+        this.messagesRepository = messagesRepository;
+        this.messagesMapper = messagesMapper;
+        this.entityManagerFactory = entityManagerFactory;
+        this.properties = applicationProperties.getMessages().getSearch();
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        IndexingListener listener = new IndexingListener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (StringUtils.hasText(properties.getSnapshotFile())) {
+            taskRegistrar.addFixedDelayTask(this::writeSnapshot, properties.getSnapshotInterval().toMillis());
+        }
+    }
+
+    /**
+     * Find the messages containing all the words of the query, or words starting with them.
+     *
+     * @param query the words to search.
+     * @param limit the maximum number of messages to return.
+     * @return the matching messages, most recently written first, with the total number of matches.
+     */
+    @Transactional(readOnly = true)
+    public Page<MessagesDTO> search(String query, int limit) {
+        MessagesSearchIndex.Hits hits = index.search(query, limit);
+        List<Long> ids = Arrays.stream(hits.getIds()).boxed().collect(Collectors.toList());
+        Map<Long, MessagesRepository.MessagesSummary> found = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (MessagesRepository.MessagesSummary messages : messagesRepository.findSummariesByIdIn(ids)) {
+                found.put(messages.getId(), messages);
+            }
+        }
+        // Messages deleted by another instance are still in this index until its next rebuild
+        List<MessagesDTO> result = ids
+            .stream()
+            .map(found::get)
+            .filter(Objects::nonNull)
+            .map(messagesMapper::fromSummary)
+            .collect(Collectors.toList());
+        return new PageImpl<>(result, PageRequest.of(0, Math.max(limit, 1)), hits.getTotal());
+    }
+
+    /**
+     * Restore the index from its snapshot, or rebuild it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIndex() {
+        replaceIndex(() -> {
+            MessagesSearchIndex restored = restoreSnapshot();
+            return restored != null ? restored : buildIndex();
+        });
+    }
+
+    /**
+     * Rebuild the index from the database, reading {@code rebuild-parallelism} id ranges concurrently.
+     */
+    public void rebuildIndex() {
+        replaceIndex(this::buildIndex);
+    }
+
+    private void replaceIndex(Supplier<MessagesSearchIndex> loader) {
+        long start = System.currentTimeMillis();
+        synchronized (indexMonitor) {
+            pendingWrites = new ArrayList<>();
+        }
+        MessagesSearchIndex loaded;
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (indexMonitor) {
+                pendingWrites = null;
+            }
+            throw e;
+        }
+        synchronized (indexMonitor) {
+            index = loaded;
+            pendingWrites.forEach(Runnable::run);
+            pendingWrites = null;
+        }
+        log.info("Loaded the messages search index of {} messages in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * The index of the snapshot file, caught up with the messages created since, or {@code null} if there is no
+     * usable snapshot.
+     */
+    private MessagesSearchIndex restoreSnapshot() {
+        MessagesSearchIndex snapshot = readSnapshot();
+        if (snapshot == null) {
+            return null;
+        }
+        indexRange(snapshot, snapshot.maxId(), Long.MAX_VALUE);
+        // Updates and deletes made while this instance was down are not detected, only a different count is
+        if (snapshot.size() != messagesRepository.count()) {
+            log.info("The messages search index snapshot does not match the database, rebuilding the index");
+            return null;
+        }
+        return snapshot;
+    }
+
+    private MessagesSearchIndex buildIndex() {
+        Long minId = messagesRepository.findMinId();
+        Long maxId = messagesRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return new MessagesSearchIndex();
+        }
+        int parallelism = Math.max(1, properties.getRebuildParallelism());
+        long rangeSize = Math.max(1, (maxId - minId + 1 + parallelism - 1) / parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<CompletableFuture<MessagesSearchIndex>> parts = new ArrayList<>();
+            for (long first = minId; first <= maxId; first += rangeSize) {
+                long afterId = first - 1;
+                long lastId = Math.min(maxId, afterId + rangeSize);
+                parts.add(
+                    CompletableFuture.supplyAsync(
+                        () -> {
+                            MessagesSearchIndex part = new MessagesSearchIndex();
+                            indexRange(part, afterId, lastId);
+                            return part;
+                        },
+                        executor
+                    )
+                );
+            }
+            return MessagesSearchIndex.merge(parts.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Index the messages with an id in {@code (afterId, lastId]}.
+     */
+    private void indexRange(MessagesSearchIndex target, long afterId, long lastId) {
+        PageRequest batch = PageRequest.of(0, properties.getRebuildBatchSize());
+        List<MessagesRepository.MessageText> texts;
+        do {
+            texts = messagesRepository.findTextByIdRange(afterId, lastId, batch);
+            for (MessagesRepository.MessageText text : texts) {
+                target.put(text.getId(), text.getMessage());
+                afterId = text.getId();
+            }
+        } while (texts.size() == batch.getPageSize());
+    }
+
+    private MessagesSearchIndex readSnapshot() {
+        if (!StringUtils.hasText(properties.getSnapshotFile())) {
+            return null;
+        }
+        Path file = Paths.get(properties.getSnapshotFile());
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return MessagesSearchIndex.readFrom(in);
+        } catch (IOException e) {
+            log.warn("Could not read the messages search index snapshot {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write the index to the snapshot file, through a temporary file so that a crash never leaves a partial snapshot.
+     */
+    @PreDestroy
+    public void writeSnapshot() {
+        if (!StringUtils.hasText(properties.getSnapshotFile())) {
+            return;
+        }
+        Path file = Paths.get(properties.getSnapshotFile()).toAbsolutePath();
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                index.writeTo(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write the messages search index snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Index the new text of a message written with a bulk or native statement, which bypasses the Hibernate listeners.
+     * <p>
+     * Within a transaction, the index is written after its commit.
+     *
+     * @param id the id of the written message.
+     * @param message its new text.
+     */
+    public void messageUpdated(Long id, String message) {
+        afterCommit(() -> write(() -> index.put(id, message)));
+    }
+
+    /**
+     * Remove messages deleted with a bulk statement, which bypasses the Hibernate listeners.
+     * <p>
+     * Within a transaction, the index is written after its commit.
+     *
+     * @param ids the ids of the deleted messages.
+     */
+    public void messagesDeleted(Collection<Long> ids) {
+        List<Long> deleted = List.copyOf(ids);
+        afterCommit(() -> write(() -> deleted.forEach(index::remove)));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+
+    private void write(Runnable write) {
+        synchronized (indexMonitor) {
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        }
+        write.run();
+    }
+
+    /**
+     * Applies the committed writes of {@link Messages} to the index.
+     */
+    private final class IndexingListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Messages) {
+                Messages messages = (Messages) event.getEntity();
+                write(() -> index.put(messages.getId(), messages.getMessage()));
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Messages) {
+                Messages messages = (Messages) event.getEntity();
+                write(() -> index.put(messages.getId(), messages.getMessage()));
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Messages) {
+                long id = (Long) event.getId();
+                write(() -> index.remove(id));
+            }
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return Messages.class.equals(persister.getMappedClass());
+        }
+    }
+}
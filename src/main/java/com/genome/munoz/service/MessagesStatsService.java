@@ -0,0 +1,298 @@
+package com.genome.munoz.service;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.genome.munoz.domain.Messages;
+import com.genome.munoz.repository.MessagesStatsRepository;
+import com.genome.munoz.service.dto.MessagesStatsDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Daily rollups of the messages per greeting, kept in {@code messages_daily_stats} so that the statistics never group
+ * the {@code messages} table.
+ * <p>
+ * Writes of {@link Messages} committed through Hibernate, and those reported with {@link #hireDatesChanged}, mark the
+ * days of their old and new hire dates as changed. Every {@code refresh-interval}, the changed days are recomputed
+ * from the messages hired on them, consecutive days together. Changes committed by other instances, or lost when this
+ * one stopped, are caught up by the backfill, which recomputes every day by ranges of {@code backfill-days} on
+ * {@code backfill-cron}, and at startup when there are no rollups yet.
+ */
+@Service
+public class MessagesStatsService implements SchedulingConfigurer {
+
+    static final String PENDING_METER_NAME = "messages.stats.pending";
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(1, 1, 1);
+
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+    private final Logger log = LoggerFactory.getLogger(MessagesStatsService.class);
+
+    private final MessagesStatsRepository messagesStatsRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties.Messages.Stats properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final NavigableSet<LocalDate> changedDays = new ConcurrentSkipListSet<>();
+
+    public MessagesStatsService(
+        MessagesStatsRepository messagesStatsRepository,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.messagesStatsRepository = messagesStatsRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.properties = applicationProperties.getMessages().getStats();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge
+            .builder(PENDING_METER_NAME, changedDays, NavigableSet::size)
+            .description("Days of messages statistics waiting to be refreshed")
+            .baseUnit("days")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        ChangedDaysListener listener = new ChangedDaysListener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(this::refresh, properties.getRefreshInterval().toMillis());
+    }
+
+    /**
+     * The number of messages per greeting and per UTC day of their hire date, archived messages included.
+     *
+     * @param from the first day.
+     * @param to the day after the last one.
+     * @param greetingId the greeting to count the messages of, or {@code null} for all of them.
+     * @return the days and greetings with messages, in {@code (day, greeting)} order, the messages without greeting
+     * first.
+     */
+    @Transactional(readOnly = true)
+    public List<MessagesStatsDTO> findDailyCounts(LocalDate from, LocalDate to, Long greetingId) {
+        return messagesStatsRepository
+            .findByDayRange(from, to, greetingId)
+            .stream()
+            .map(MessagesStatsService::toDto)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Refresh the days of messages written with a bulk or native statement, which bypasses the Hibernate listeners.
+     * <p>
+     * Within a transaction, the days are marked as changed after its commit.
+     *
+     * @param hireDates the old and new hire dates of the written messages.
+     */
+    public void hireDatesChanged(Collection<Instant> hireDates) {
+        List<LocalDate> days = hireDates
+            .stream()
+            .filter(Objects::nonNull)
+            .map(MessagesStatsService::day)
+            .distinct()
+            .collect(Collectors.toList());
+        afterCommit(() -> changedDays.addAll(days));
+    }
+
+    /**
+     * Refresh the days of the messages hired in {@code [from, to)}, such as those of a dropped partition.
+     */
+    public void hireDatesChanged(Instant from, Instant to) {
+        LocalDate last = day(to.minusNanos(1));
+        afterCommit(() -> {
+            for (LocalDate day = day(from); !day.isAfter(last); day = day.plusDays(1)) {
+                changedDays.add(day);
+            }
+        });
+    }
+
+    /**
+     * Recompute the changed days, each range of consecutive days in its own transaction.
+     */
+    public synchronized void refresh() {
+        LocalDate from;
+        while ((from = changedDays.pollFirst()) != null) {
+            LocalDate to = from.plusDays(1);
+            while (changedDays.remove(to)) {
+                to = to.plusDays(1);
+            }
+            if (!recompute(from, to)) {
+                for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+                    changedDays.add(day);
+                }
+                return;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeStats() {
+        if (messagesStatsRepository.isEmpty()) {
+            backfill();
+        }
+    }
+
+    /**
+     * Recompute every day, by ranges of {@code backfill-days} starting on a day with messages.
+     *
+     * @return the number of rollup rows written.
+     */
+    @Scheduled(cron = "${application.messages.stats.backfill-cron:0 0 4 * * ?}")
+    public synchronized long backfill() {
+        long start = System.currentTimeMillis();
+        long written = 0;
+        LocalDate from = FIRST_DAY;
+        while (from.isBefore(LAST_DAY)) {
+            Optional<LocalDate> firstHireDay = messagesStatsRepository.findFirstHireDay(from);
+            LocalDate rangeFrom = from;
+            LocalDate rangeTo = firstHireDay
+                .map(day -> day.plusDays(Math.max(1, properties.getBackfillDays())))
+                .filter(day -> day.isBefore(LAST_DAY))
+                .orElse(LAST_DAY);
+            // The days without messages since the previous range are cleared too
+            written += transactionTemplate.execute(status -> messagesStatsRepository.recompute(rangeFrom, rangeTo));
+            from = rangeTo;
+        }
+        log.info("Backfilled {} messages statistics in {} ms", written, System.currentTimeMillis() - start);
+        return written;
+    }
+
+    private boolean recompute(LocalDate from, LocalDate to) {
+        try {
+            transactionTemplate.execute(status -> messagesStatsRepository.recompute(from, to));
+            return true;
+        } catch (RuntimeException e) {
+            // Typically the same days recomputed concurrently by another instance, retried on the next refresh
+            log.warn("Could not refresh the messages statistics from {} to {}: {}", from, to, e.getMessage());
+            return false;
+        }
+    }
+
+    private static LocalDate day(Instant hireDate) {
+        return LocalDate.ofInstant(hireDate, ZoneOffset.UTC);
+    }
+
+    private static MessagesStatsDTO toDto(MessagesStatsRepository.DailyCount dailyCount) {
+        MessagesStatsDTO dto = new MessagesStatsDTO();
+        dto.setDay(dailyCount.getDay());
+        dto.setGreetingId(dailyCount.getGreetingId() != MessagesStatsRepository.NO_GREETING_ID ? dailyCount.getGreetingId() : null);
+        dto.setCount(dailyCount.getCount());
+        return dto;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Marks the days of the committed writes of {@link Messages} as changed.
+     */
+    private final class ChangedDaysListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Messages) {
+                changed(((Messages) event.getEntity()).getHireDate());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Messages) {
+                changed(((Messages) event.getEntity()).getHireDate());
+                if (event.getOldState() != null) {
+                    int hireDate = event.getPersister().getEntityMetamodel().getPropertyIndex("hireDate");
+                    changed((Instant) event.getOldState()[hireDate]);
+                }
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Messages) {
+                changed(((Messages) event.getEntity()).getHireDate());
+            }
+        }
+
+        private void changed(Instant hireDate) {
+            if (hireDate != null) {
+                changedDays.add(day(hireDate));
+            }
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+        @Override
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return Messages.class.equals(persister.getMappedClass());
+        }
+    }
+}
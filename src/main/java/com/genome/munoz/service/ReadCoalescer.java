@@ -0,0 +1,133 @@
+package com.genome.munoz.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.transaction.TransactionProperties;
+import org.springframework.stereotype.Service;
+
+/**
+ * Coalesces concurrent identical reads: while a load of a key is in flight, the other callers of the same key wait
+ * for it and share its result, or its exception, instead of loading it again.
+ * <p>
+ * A caller may thus get a result loaded slightly before it called, by a load which started before a concurrent write
+ * committed, but never one older than the load in flight. Results are shared between threads and must not be
+ * modified: DTOs rather than managed entities.
+ * <p>
+ * A caller waits for the load in flight at most the transaction timeout, {@code spring.transaction.default-timeout},
+ * or {@link #DEFAULT_TIMEOUT} when there is none, then loads the result itself: a stalled load does not hold the
+ * threads of all the callers of its key for longer than their own load could take.
+ * <p>
+ * The calls are published as the {@code read.coalescing.calls} meter, tagged by read and by whether the caller
+ * loaded the result or shared one, which gives the coalescing ratio, and the waits which timed out as
+ * {@code read.coalescing.timeouts}.
+ */
+@Service
+public class ReadCoalescer {
+
+    static final String CALLS_METER_NAME = "read.coalescing.calls";
+
+    static final String IN_FLIGHT_METER_NAME = "read.coalescing.in.flight";
+
+    static final String TIMEOUTS_METER_NAME = "read.coalescing.timeouts";
+
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Logger log = LoggerFactory.getLogger(ReadCoalescer.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration timeout;
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReadCoalescer(MeterRegistry meterRegistry, TransactionProperties transactionProperties) {
+        this(
+            meterRegistry,
+            transactionProperties.getDefaultTimeout() != null ? transactionProperties.getDefaultTimeout() : DEFAULT_TIMEOUT
+        );
+    }
+
+    ReadCoalescer(MeterRegistry meterRegistry, Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        Gauge.builder(IN_FLIGHT_METER_NAME, inFlight, Map::size).description("Coalesced reads in flight").register(meterRegistry);
+    }
+
+    /**
+     * @param read the name of the read, such as {@code greeting}.
+     * @param key what is read, such as the id of the greeting.
+     * @param loader the load, called unless one of the same key is in flight.
+     * @return the result of the load in flight, or else of {@code loader}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String read, Object key, Supplier<T> loader) {
+        List<Object> flightKey = List.of(read, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            counter(read, "shared").increment();
+            try {
+                return (T) await(existing);
+            } catch (TimeoutException e) {
+                Counter
+                    .builder(TIMEOUTS_METER_NAME)
+                    .description("Reads which stopped waiting for an identical read in flight and loaded their result")
+                    .tags("read", read)
+                    .register(meterRegistry)
+                    .increment();
+                log.debug("Read {} of {} still in flight after {}, loading it again", read, key, timeout);
+                return loader.get();
+            }
+        }
+        counter(read, "loaded").increment();
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> flight) throws TimeoutException {
+        try {
+            return flight.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical read", e);
+        }
+    }
+
+    private Counter counter(String read, String result) {
+        return Counter
+            .builder(CALLS_METER_NAME)
+            .description("Reads which loaded their result, or shared the result of an identical read in flight")
+            .tags("read", read, "result", result)
+            .register(meterRegistry);
+    }
+}
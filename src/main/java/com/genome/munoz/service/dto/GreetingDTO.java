@@ -0,0 +1,71 @@
+package com.genome.munoz.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the {@link com.genome.munoz.domain.Greeting} entity.
+ */
+public class GreetingDTO implements Serializable {
+
+    private Long id;
+
+    private String greeting;
+
+    private Long version;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getGreeting() {
+        return greeting;
+    }
+
+    public void setGreeting(String greeting) {
+        this.greeting = greeting;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GreetingDTO)) {
+            return false;
+        }
+
+        GreetingDTO greetingDTO = (GreetingDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, greetingDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "GreetingDTO{" +
+            "id=" + getId() +
+            ", greeting='" + getGreeting() + "'" +
+            ", version=" + getVersion() +
+            "}";
+    }
+}
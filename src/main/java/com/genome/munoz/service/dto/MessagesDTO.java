@@ -0,0 +1,105 @@
+package com.genome.munoz.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A DTO for the {@link com.genome.munoz.domain.Messages} entity.
+ */
+public class MessagesDTO implements Serializable {
+
+    private Long id;
+
+    private String message;
+
+    private Instant hireDate;
+
+    private Long version;
+
+    private String idempotencyKey;
+
+    private GreetingDTO greeting;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Instant getHireDate() {
+        return hireDate;
+    }
+
+    public void setHireDate(Instant hireDate) {
+        this.hireDate = hireDate;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public GreetingDTO getGreeting() {
+        return greeting;
+    }
+
+    public void setGreeting(GreetingDTO greeting) {
+        this.greeting = greeting;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MessagesDTO)) {
+            return false;
+        }
+
+        MessagesDTO messagesDTO = (MessagesDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, messagesDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MessagesDTO{" +
+            "id=" + getId() +
+            ", message='" + getMessage() + "'" +
+            ", hireDate='" + getHireDate() + "'" +
+            ", version=" + getVersion() +
+            ", idempotencyKey='" + getIdempotencyKey() + "'" +
+            ", greeting=" + getGreeting() +
+            "}";
+    }
+}
@@ -0,0 +1,76 @@
+package com.genome.munoz.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A DTO for the number of {@link com.genome.munoz.domain.Messages} of a greeting hired on a UTC day.
+ */
+public class MessagesStatsDTO implements Serializable {
+
+    private LocalDate day;
+
+    private Long greetingId;
+
+    private long count;
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    /**
+     * @return the id of the greeting, or {@code null} for the messages without greeting.
+     */
+    public Long getGreetingId() {
+        return greetingId;
+    }
+
+    public void setGreetingId(Long greetingId) {
+        this.greetingId = greetingId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MessagesStatsDTO)) {
+            return false;
+        }
+
+        MessagesStatsDTO messagesStatsDTO = (MessagesStatsDTO) o;
+        return (
+            count == messagesStatsDTO.count &&
+            Objects.equals(day, messagesStatsDTO.day) &&
+            Objects.equals(greetingId, messagesStatsDTO.greetingId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(day, greetingId, count);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MessagesStatsDTO{" +
+            "day='" + getDay() + "'" +
+            ", greetingId=" + getGreetingId() +
+            ", count=" + getCount() +
+            "}";
+    }
+}
@@ -0,0 +1,22 @@
+package com.genome.munoz.service.mapper;
+
+import com.genome.munoz.domain.Greeting;
+import com.genome.munoz.repository.GreetingRepository;
+import com.genome.munoz.service.dto.GreetingDTO;
+import java.util.List;
+import org.mapstruct.*;
+
+/**
+ * Mapper for the entity {@link Greeting} and its DTO {@link GreetingDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface GreetingMapper extends EntityMapper<GreetingDTO, Greeting> {
+    @Override
+    @Mapping(target = "messages", ignore = true)
+    @Mapping(target = "removeMessages", ignore = true)
+    Greeting toEntity(GreetingDTO greetingDTO);
+
+    GreetingDTO fromSummary(GreetingRepository.GreetingSummary summary);
+
+    List<GreetingDTO> fromSummaries(List<GreetingRepository.GreetingSummary> summaries);
+}
@@ -0,0 +1,30 @@
+package com.genome.munoz.service.mapper;
+
+import com.genome.munoz.domain.Messages;
+import com.genome.munoz.repository.MessagesRepository;
+import com.genome.munoz.service.dto.GreetingDTO;
+import com.genome.munoz.service.dto.MessagesDTO;
+import java.util.List;
+import org.mapstruct.*;
+
+/**
+ * Mapper for the entity {@link Messages} and its DTO {@link MessagesDTO}.
+ */
+@Mapper(componentModel = "spring", uses = GreetingMapper.class)
+public interface MessagesMapper extends EntityMapper<MessagesDTO, Messages> {
+    @Mapping(target = "greeting", ignore = true)
+    MessagesDTO fromSummary(MessagesRepository.MessagesSummary summary);
+
+    List<MessagesDTO> fromSummaries(List<MessagesRepository.MessagesSummary> summaries);
+
+    @AfterMapping
+    default void greetingFromSummary(MessagesRepository.MessagesSummary summary, @MappingTarget MessagesDTO messagesDTO) {
+        if (summary.getGreetingId() != null) {
+            GreetingDTO greetingDTO = new GreetingDTO();
+            greetingDTO.setId(summary.getGreetingId());
+            greetingDTO.setGreeting(summary.getGreetingGreeting());
+            greetingDTO.setVersion(summary.getGreetingVersion());
+            messagesDTO.setGreeting(greetingDTO);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Data transfer objects mappers.
+ */
+package com.genome.munoz.service.mapper;
@@ -0,0 +1,538 @@
+package com.genome.munoz.service.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the text of the messages.
+ * <p>
+ * Every message gets an ordinal, in indexing order. A term maps to the sorted ordinals of the messages containing it,
+ * kept in an {@code int[]}, and the ordinals map back to the message ids through a {@code long[]}. Words are indexed
+ * with their prefixes from {@value #MIN_GRAM} to {@value #MAX_GRAM} characters (edge n-grams), so a query term
+ * matches the words it starts: one-letter query terms only match one-letter words, and query terms longer than
+ * {@value #MAX_GRAM} characters must match a whole word.
+ * <p>
+ * An updated message gets a new ordinal and its previous one is marked as deleted; deleted ordinals are purged from
+ * the posting lists once they exceed a quarter of the index.
+ */
+public class MessagesSearchIndex {
+
+    static final int MIN_GRAM = 2;
+
+    static final int MAX_GRAM = 15;
+
+    private static final int SNAPSHOT_MAGIC = 0x4d534958;
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    private final LongIntHashMap ordinals = new LongIntHashMap();
+
+    private final BitSet deleted = new BitSet();
+
+    private long[] ids = new long[1024];
+
+    private int size;
+
+    private int deletedCount;
+
+    /**
+     * Index the text of a message, replacing its previous text if any.
+     */
+    public void put(long id, String text) {
+        Set<String> terms = documentTerms(text);
+        lock.writeLock().lock();
+        try {
+            removeOrdinal(id);
+            int ordinal = addOrdinal(id);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new PostingList()).add(ordinal);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a message from the index, if it is indexed.
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeOrdinal(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int addOrdinal(long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size] = id;
+        ordinals.put(id, size);
+        return size++;
+    }
+
+    private void removeOrdinal(long id) {
+        int ordinal = ordinals.remove(id);
+        if (ordinal >= 0) {
+            deleted.set(ordinal);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Find the messages containing all the terms of the query, most recently indexed first.
+     *
+     * @param query the words to search, or their beginnings.
+     * @param limit the maximum number of ids to return.
+     * @return the ids of the first {@code limit} matching messages, and the number of matching messages.
+     */
+    public Hits search(String query, int limit) {
+        Set<String> terms = queryTerms(query);
+        if (terms.isEmpty()) {
+            return Hits.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return Hits.EMPTY;
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            PostingList smallest = lists.get(0);
+            int[] matches = Arrays.copyOf(smallest.ordinals, smallest.size);
+            int count = smallest.size;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = intersect(matches, count, lists.get(i));
+            }
+            int total = 0;
+            long[] found = new long[Math.min(limit, count)];
+            for (int i = count - 1; i >= 0; i--) {
+                if (!deleted.get(matches[i])) {
+                    if (total < found.length) {
+                        found[total] = ids[matches[i]];
+                    }
+                    total++;
+                }
+            }
+            return new Hits(Arrays.copyOf(found, Math.min(total, found.length)), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keep in {@code matches} the ordinals also in {@code other}; both are sorted.
+     *
+     * @return the number of ordinals kept.
+     */
+    private static int intersect(int[] matches, int count, PostingList other) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < other.size; i++) {
+            int position = Arrays.binarySearch(other.ordinals, from, other.size, matches[i]);
+            if (position >= 0) {
+                matches[kept++] = matches[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Number of messages in the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Highest message id in the index, or {@code 0} if it is empty.
+     */
+    public long maxId() {
+        lock.readLock().lock();
+        try {
+            long max = 0;
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (!deleted.get(ordinal) && ids[ordinal] > max) {
+                    max = ids[ordinal];
+                }
+            }
+            return max;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount >= MIN_DELETED_TO_COMPACT && deletedCount * 4 > size) {
+            compact();
+        }
+    }
+
+    /**
+     * Purge the deleted ordinals, renumbering the others in the same order.
+     */
+    private void compact() {
+        int[] remap = new int[size];
+        int live = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = live;
+                ids[live++] = ids[ordinal];
+            }
+        }
+        postings.values().removeIf(list -> list.remap(remap) == 0);
+        size = live;
+        deleted.clear();
+        deletedCount = 0;
+        ordinals.clear();
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            ordinals.put(ids[ordinal], ordinal);
+        }
+    }
+
+    /**
+     * Concatenate indexes built over disjoint sets of messages, keeping their order.
+     */
+    public static MessagesSearchIndex merge(List<MessagesSearchIndex> parts) {
+        MessagesSearchIndex merged = new MessagesSearchIndex();
+        for (MessagesSearchIndex part : parts) {
+            part.lock.readLock().lock();
+            try {
+                int offset = merged.size;
+                for (int ordinal = 0; ordinal < part.size; ordinal++) {
+                    merged.addOrdinal(part.ids[ordinal]);
+                    if (part.deleted.get(ordinal)) {
+                        merged.removeOrdinal(part.ids[ordinal]);
+                    }
+                }
+                for (Map.Entry<String, PostingList> entry : part.postings.entrySet()) {
+                    merged.postings.computeIfAbsent(entry.getKey(), key -> new PostingList()).append(entry.getValue(), offset);
+                }
+            } finally {
+                part.lock.readLock().unlock();
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Write the index, so that {@link #readFrom(DataInputStream)} restores it without reading the messages again.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(size);
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                out.writeLong(ids[ordinal]);
+            }
+            long[] deletedWords = deleted.toLongArray();
+            out.writeInt(deletedWords.length);
+            for (long word : deletedWords) {
+                out.writeLong(word);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                out.writeUTF(entry.getKey());
+                PostingList list = entry.getValue();
+                out.writeInt(list.size);
+                for (int i = 0; i < list.size; i++) {
+                    out.writeInt(list.ordinals[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read an index written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @throws IOException if the input is not a snapshot of this version.
+     */
+    public static MessagesSearchIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Not a messages search index snapshot");
+        }
+        MessagesSearchIndex index = new MessagesSearchIndex();
+        int size = in.readInt();
+        index.ids = new long[Math.max(size, 1024)];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            index.ids[ordinal] = in.readLong();
+        }
+        index.size = size;
+        long[] deletedWords = new long[in.readInt()];
+        for (int i = 0; i < deletedWords.length; i++) {
+            deletedWords[i] = in.readLong();
+        }
+        index.deleted.or(BitSet.valueOf(deletedWords));
+        index.deletedCount = index.deleted.cardinality();
+        // Only the live ordinals map their ids: an updated message also has the deleted ordinal of its previous text
+        for (int ordinal = index.deleted.nextClearBit(0); ordinal < size; ordinal = index.deleted.nextClearBit(ordinal + 1)) {
+            index.ordinals.put(index.ids[ordinal], ordinal);
+        }
+        int termCount = in.readInt();
+        for (int i = 0; i < termCount; i++) {
+            String term = in.readUTF();
+            int count = in.readInt();
+            PostingList list = new PostingList(count);
+            for (int j = 0; j < count; j++) {
+                list.add(in.readInt());
+            }
+            index.postings.put(term, list);
+        }
+        return index;
+    }
+
+    /**
+     * Terms a message is indexed under: its words and their prefixes.
+     */
+    static Set<String> documentTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            if (word.length() < MIN_GRAM || word.length() > MAX_GRAM) {
+                terms.add(word);
+            }
+            for (int length = MIN_GRAM; length <= Math.min(word.length(), MAX_GRAM); length++) {
+                terms.add(word.substring(0, length));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Terms looked up for a query: its words, which the document terms already expand to their prefixes.
+     */
+    static Set<String> queryTerms(String query) {
+        return new LinkedHashSet<>(words(query));
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean letterOrDigit = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                words.add(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Result of a search.
+     */
+    public static final class Hits {
+
+        static final Hits EMPTY = new Hits(new long[0], 0);
+
+        private final long[] ids;
+
+        private final int total;
+
+        Hits(long[] ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        /**
+         * Ids of the matching messages returned, most recently indexed first.
+         */
+        public long[] getIds() {
+            return ids;
+        }
+
+        /**
+         * Number of matching messages, including the ones beyond the limit.
+         */
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * Sorted ordinals of the messages containing a term.
+     */
+    private static final class PostingList {
+
+        private int[] ordinals;
+
+        private int size;
+
+        private PostingList() {
+            this(4);
+        }
+
+        private PostingList(int capacity) {
+            ordinals = new int[Math.max(capacity, 1)];
+        }
+
+        private void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        private void append(PostingList other, int offset) {
+            if (size + other.size > ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + other.size);
+            }
+            for (int i = 0; i < other.size; i++) {
+                ordinals[size++] = other.ordinals[i] + offset;
+            }
+        }
+
+        /**
+         * Renumber the ordinals, dropping the ones mapped to {@code -1}.
+         *
+         * @return the new size.
+         */
+        private int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept++] = ordinal;
+                }
+            }
+            size = kept;
+            if (size < ordinals.length / 4) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(size, 1));
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Open-addressing map from message id to ordinal, without boxing.
+     */
+    private static final class LongIntHashMap {
+
+        private long[] keys = new long[16];
+
+        /**
+         * Values plus one, so that {@code 0} marks a free slot.
+         */
+        private int[] values = new int[16];
+
+        private int size;
+
+        private static int slot(long key, int mask) {
+            long hash = key * 0x9e3779b97f4a7c15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == 0) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value + 1;
+        }
+
+        /**
+         * @return the removed value, or {@code -1} if the key is not in the map.
+         */
+        private int remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == 0) {
+                return -1;
+            }
+            int removed = values[i] - 1;
+            values[i] = 0;
+            size--;
+            // Shift back the entries of the probe sequence, so that lookups do not stop at the freed slot
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (values[j] == 0) {
+                    return removed;
+                }
+                int home = slot(keys[j], mask);
+                boolean reachable = i <= j ? i < home && home <= j : i < home || home <= j;
+                if (!reachable) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = 0;
+                    i = j;
+                }
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(values, 0);
+            size = 0;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != 0) {
+                    put(oldKeys[i], oldValues[i] - 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory full-text search structures.
+ */
+package com.genome.munoz.service.search;
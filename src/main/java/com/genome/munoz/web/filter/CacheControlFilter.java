@@ -0,0 +1,165 @@
+package com.genome.munoz.web.filter;
+
+import com.genome.munoz.config.ApplicationProperties;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Sets the {@code Cache-Control} of the responses from the path policies of {@code application.http-cache}, so that
+ * browsers and shared caches absorb the repeated reads.
+ * <p>
+ * The policies apply to {@code GET} and {@code HEAD} requests: the first one matching the path gives the header, made
+ * {@code private} when the request carries credentials so that only the browser stores the response. Unsafe requests
+ * of the REST API are answered with {@code no-store}, and error responses are never cached. The header is set before
+ * the Spring Security filters, which otherwise write their {@code no-cache} defaults.
+ * <p>
+ * Cacheable responses of the REST API also get {@code Vary: Accept}, as it negotiates JSON, CBOR or Smile: a shared
+ * cache must not serve one format to a client asking for another.
+ */
+public class CacheControlFilter extends OncePerRequestFilter {
+
+    static final String NO_STORE = CacheControl.noStore().getHeaderValue();
+
+    private static final String API_PATH = "/api/";
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final List<Policy> policies;
+
+    /**
+     * @param assetsMaxAge the {@code max-age} of the immutable policies without one.
+     */
+    public CacheControlFilter(ApplicationProperties.HttpCache properties, Duration assetsMaxAge) {
+        this.policies = properties.getPolicies().stream().map(policy -> new Policy(policy, assetsMaxAge)).collect(Collectors.toList());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String cacheControl = cacheControl(request);
+        if (cacheControl == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (NO_STORE.equals(cacheControl)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (urlPathHelper.getPathWithinApplication(request).startsWith(API_PATH)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        filterChain.doFilter(request, new CacheableResponse(response));
+    }
+
+    /**
+     * @return the {@code Cache-Control} of the response to the request, or {@code null} to leave it to the handler.
+     */
+    String cacheControl(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return path.startsWith(API_PATH) ? NO_STORE : null;
+        }
+        boolean authenticated = request.getHeader(HttpHeaders.AUTHORIZATION) != null;
+        for (Policy policy : policies) {
+            if (policy.matches(pathMatcher, path)) {
+                return authenticated ? policy.privateCacheControl : policy.cacheControl;
+            }
+        }
+        return null;
+    }
+
+    private static final class Policy {
+
+        private final List<String> paths;
+
+        private final String cacheControl;
+
+        private final String privateCacheControl;
+
+        Policy(ApplicationProperties.HttpCache.Policy policy, Duration assetsMaxAge) {
+            this.paths = List.copyOf(policy.getPaths());
+            this.cacheControl = cacheControl(policy, assetsMaxAge, false);
+            this.privateCacheControl = cacheControl(policy, assetsMaxAge, true);
+        }
+
+        boolean matches(PathMatcher pathMatcher, String path) {
+            return paths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+        }
+
+        private static String cacheControl(ApplicationProperties.HttpCache.Policy policy, Duration assetsMaxAge, boolean cachePrivate) {
+            CacheControl cacheControl;
+            if (policy.isNoCache()) {
+                cacheControl = CacheControl.noCache();
+            } else if (policy.getMaxAge() != null) {
+                cacheControl = CacheControl.maxAge(policy.getMaxAge());
+            } else if (policy.isImmutable()) {
+                cacheControl = CacheControl.maxAge(assetsMaxAge);
+            } else {
+                cacheControl = CacheControl.empty();
+            }
+            if (policy.getStaleWhileRevalidate() != null) {
+                cacheControl = cacheControl.staleWhileRevalidate(policy.getStaleWhileRevalidate());
+            }
+            if (cachePrivate) {
+                cacheControl = cacheControl.cachePrivate();
+            }
+            String value = cacheControl.getHeaderValue();
+            // CacheControl has no immutable directive before Spring 6
+            if (policy.isImmutable()) {
+                value = value != null ? value + ", immutable" : "immutable";
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Replaces the {@code Cache-Control} of error responses with {@code no-store}.
+     */
+    private static class CacheableResponse extends HttpServletResponseWrapper {
+
+        CacheableResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            noStoreOnError(sc);
+            super.setStatus(sc);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            noStoreOnError(sc);
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            noStoreOnError(sc);
+            super.sendError(sc, msg);
+        }
+
+        private void noStoreOnError(int sc) {
+            if (sc >= HttpServletResponse.SC_BAD_REQUEST && !isCommitted()) {
+                setHeader(HttpHeaders.CACHE_CONTROL, NO_STORE);
+            }
+        }
+    }
+}
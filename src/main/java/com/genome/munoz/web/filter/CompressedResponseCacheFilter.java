@@ -0,0 +1,233 @@
+package com.genome.munoz.web.filter;
+
+import com.genome.munoz.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Serves the gzip bodies of identical responses from memory, instead of having {@code server.compression} compress
+ * them again for every client.
+ * <p>
+ * The {@code GET} responses of the paths of {@code application.response-cache} are cached when they carry an
+ * {@code ETag}, by path, query and {@code Content-Type}: a response whose {@code ETag} differs from the cached one,
+ * such as after a write, replaces it. Successful unsafe requests of the REST API clear the whole cache, so that the
+ * replaced representations do not linger in memory. The handler still computes the body, which gives the
+ * {@code ETag}; only its compression is saved.
+ * <p>
+ * The gzip representation gets its own {@code ETag}, suffixed with {@code -gzip}. The suffix is removed from
+ * {@code If-None-Match} before the handler compares it, and added back to the {@code ETag} of its {@code 304}.
+ * <p>
+ * The hits and misses are published as the {@code http.response.cache.requests} meter, and the compression time they
+ * saved as {@code http.response.cache.compression.saved}.
+ */
+public class CompressedResponseCacheFilter extends OncePerRequestFilter {
+
+    static final String REQUESTS_METER_NAME = "http.response.cache.requests";
+
+    static final String SAVED_METER_NAME = "http.response.cache.compression.saved";
+
+    static final String SIZE_METER_NAME = "http.response.cache.size";
+
+    private static final String GZIP = "gzip";
+
+    private static final String GZIP_SUFFIX = "-" + GZIP + "\"";
+
+    private static final String API_PATH = "/api/";
+
+    private final ApplicationProperties.ResponseCache properties;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final Map<String, CompressedResponse> responses;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter saved;
+
+    public CompressedResponseCacheFilter(MeterRegistry meterRegistry, ApplicationProperties.ResponseCache properties) {
+        this.properties = properties;
+        this.responses =
+            Collections.synchronizedMap(
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CompressedResponse> eldest) {
+                        return size() > properties.getMaxEntries();
+                    }
+                }
+            );
+        this.hits = requestsCounter(meterRegistry, "hit");
+        this.misses = requestsCounter(meterRegistry, "miss");
+        this.saved =
+            Counter
+                .builder(SAVED_METER_NAME)
+                .description("Compression time saved by serving cached compressed responses")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder(SIZE_METER_NAME, responses, Map::size).description("Compressed responses cached").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            if (!HttpMethod.HEAD.matches(request.getMethod()) && path.startsWith(API_PATH) && response.getStatus() < 400) {
+                responses.clear();
+            }
+            return;
+        }
+        if (!isCached(path) || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        boolean gzipValidator = ifNoneMatch != null && ifNoneMatch.contains(GZIP_SUFFIX);
+        HttpServletRequest requestWrapper = gzipValidator ? new IdentityValidatorsRequest(request, ifNoneMatch) : request;
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(requestWrapper, responseWrapper);
+        String etag = responseWrapper.getHeader(HttpHeaders.ETAG);
+        byte[] body = responseWrapper.getContentAsByteArray();
+        if (gzipValidator && responseWrapper.getStatus() == HttpServletResponse.SC_NOT_MODIFIED && etag != null) {
+            response.setHeader(HttpHeaders.ETAG, gzipEtag(etag));
+        }
+        if (
+            responseWrapper.getStatus() != HttpServletResponse.SC_OK ||
+            etag == null ||
+            responseWrapper.getHeader(HttpHeaders.CONTENT_ENCODING) != null ||
+            body.length < properties.getMinResponseSize().toBytes()
+        ) {
+            responseWrapper.copyBodyToResponse();
+            return;
+        }
+
+        String key = path + (request.getQueryString() != null ? "?" + request.getQueryString() : "") + " " + responseWrapper.getContentType();
+        CompressedResponse compressed = responses.get(key);
+        if (compressed != null && compressed.etag.equals(etag)) {
+            hits.increment();
+            saved.increment(compressed.compressionNanos / 1e9);
+        } else {
+            misses.increment();
+            compressed = compress(etag, body);
+            responses.put(key, compressed);
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        response.setHeader(HttpHeaders.ETAG, gzipEtag(etag));
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentLength(compressed.body.length);
+        response.getOutputStream().write(compressed.body);
+    }
+
+    private boolean isCached(String path) {
+        return properties.getPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} lists {@code gzip} or {@code *} without {@code q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (GZIP.equalsIgnoreCase(name) || "*".equals(name)) {
+                for (int i = 1; i < parameters.length; i++) {
+                    if (parameters[i].replace(" ", "").matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String gzipEtag(String etag) {
+        return etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + GZIP_SUFFIX : etag;
+    }
+
+    private static CompressedResponse compress(String etag, byte[] body) throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return new CompressedResponse(etag, compressed.toByteArray(), System.nanoTime() - start);
+    }
+
+    private static Counter requestsCounter(MeterRegistry meterRegistry, String result) {
+        return Counter
+            .builder(REQUESTS_METER_NAME)
+            .description("Requests of cacheable responses, served from the cache or compressed")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Request whose {@code If-None-Match} lists the {@code ETag} of the gzip representations without their suffix.
+     */
+    private static final class IdentityValidatorsRequest extends HttpServletRequestWrapper {
+
+        private final String ifNoneMatch;
+
+        IdentityValidatorsRequest(HttpServletRequest request, String ifNoneMatch) {
+            super(request);
+            this.ifNoneMatch = ifNoneMatch.replace(GZIP_SUFFIX, "\"");
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) ? ifNoneMatch : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)
+                ? Collections.enumeration(List.of(ifNoneMatch))
+                : super.getHeaders(name);
+        }
+    }
+
+    private static final class CompressedResponse {
+
+        private final String etag;
+
+        private final byte[] body;
+
+        private final long compressionNanos;
+
+        CompressedResponse(String etag, byte[] body, long compressionNanos) {
+            this.etag = etag;
+            this.body = body;
+            this.compressionNanos = compressionNanos;
+        }
+    }
+}
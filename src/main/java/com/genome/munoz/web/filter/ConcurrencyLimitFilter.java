@@ -0,0 +1,194 @@
+package com.genome.munoz.web.filter;
+
+import com.genome.munoz.config.ApplicationProperties;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Sheds the requests beyond an adaptive limit of requests in flight, answering them at once with
+ * {@code 503 (Service Unavailable)} rather than letting them queue for threads and connections, so that the latency of
+ * the admitted requests stays bounded under overload.
+ * <p>
+ * Each limit of {@code application.concurrency-limit}, such as one for {@code /api} and one for {@code /management},
+ * follows the latency of its requests with a gradient algorithm: while the recent latency stays close to the long-term
+ * one the limit grows, by the square root of the limit, and as soon as it exceeds it by more than the tolerance, which
+ * means the requests queue somewhere, it shrinks in proportion. The limits, the requests in flight and the rejected
+ * requests are published as the {@code concurrency.limit.*} meters.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_METER_NAME = "concurrency.limit.limit";
+
+    static final String IN_FLIGHT_METER_NAME = "concurrency.limit.in.flight";
+
+    static final String REJECTED_METER_NAME = "concurrency.limit.rejected";
+
+    private final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final Clock clock;
+
+    private final List<String> excludedPaths;
+
+    private final List<GradientLimit> limits;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry, ApplicationProperties.ConcurrencyLimit properties) {
+        this.clock = meterRegistry.config().clock();
+        this.excludedPaths = List.copyOf(properties.getExcludedPaths());
+        this.limits = properties.getLimits().stream().map(limit -> new GradientLimit(limit, meterRegistry)).collect(Collectors.toList());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        GradientLimit limit = findLimit(urlPathHelper.getPathWithinApplication(request));
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            log.debug("Rejected {} {}, limit of {} requests in flight reached", request.getMethod(), request.getRequestURI(), limit.getLimit());
+            limit.rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many requests in flight, retry later");
+            return;
+        }
+        long start = clock.monotonicTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.release(clock.monotonicTime() - start);
+        }
+    }
+
+    private GradientLimit findLimit(String path) {
+        if (excludedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return null;
+        }
+        for (GradientLimit limit : limits) {
+            if (limit.paths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A limit of requests in flight, adjusted on every request by the gradient between the long-term latency and the
+     * recent one, both exponential moving averages.
+     */
+    static final class GradientLimit {
+
+        private static final double SHORT_RTT_WEIGHT = 2.0 / (10 + 1);
+
+        private static final double LONG_RTT_WEIGHT = 2.0 / (600 + 1);
+
+        private static final double MIN_GRADIENT = 0.5;
+
+        private final List<String> paths;
+
+        private final int minLimit;
+
+        private final int maxLimit;
+
+        private final double tolerance;
+
+        private final double smoothing;
+
+        private final Counter rejected;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private volatile double limit;
+
+        private double shortRtt;
+
+        private double longRtt;
+
+        GradientLimit(ApplicationProperties.ConcurrencyLimit.Limit properties, MeterRegistry meterRegistry) {
+            this.paths = List.copyOf(properties.getPaths());
+            this.minLimit = properties.getMinLimit();
+            this.maxLimit = properties.getMaxLimit();
+            this.tolerance = properties.getTolerance();
+            this.smoothing = properties.getSmoothing();
+            this.limit = properties.getInitialLimit();
+            this.rejected =
+                Counter
+                    .builder(REJECTED_METER_NAME)
+                    .description("Requests rejected beyond the limit of requests in flight")
+                    .tag("limit", properties.getName())
+                    .register(meterRegistry);
+            Gauge
+                .builder(LIMIT_METER_NAME, this, GradientLimit::getLimit)
+                .description("Adaptive limit of requests in flight")
+                .tag("limit", properties.getName())
+                .register(meterRegistry);
+            Gauge
+                .builder(IN_FLIGHT_METER_NAME, inFlight, AtomicInteger::get)
+                .description("Requests in flight")
+                .tag("limit", properties.getName())
+                .register(meterRegistry);
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= getLimit()) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(long rttNanos) {
+            update(rttNanos, inFlight.getAndDecrement());
+        }
+
+        int getLimit() {
+            return (int) limit;
+        }
+
+        private synchronized void update(long rttNanos, int inFlight) {
+            double rtt = Math.max(rttNanos, 1);
+            if (longRtt == 0) {
+                shortRtt = rtt;
+                longRtt = rtt;
+            }
+            shortRtt += (rtt - shortRtt) * SHORT_RTT_WEIGHT;
+            longRtt += (rtt - longRtt) * LONG_RTT_WEIGHT;
+            // The load dropped: let the long-term latency catch up rather than grow the limit for minutes
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            // Too few requests to tell whether more would queue
+            if (inFlight < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+            double estimate = limit * gradient + Math.sqrt(limit);
+            limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + estimate * smoothing));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.genome.munoz.web.filter;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.genome.munoz.security.SecurityUtils;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Limits the requests of each client with a token bucket per client and limit of {@code application.rate-limit}, so
+ * that one client cannot exhaust the database pool for everyone.
+ * <p>
+ * The client is the subject of the JWT, as authenticated by the {@code JWTFilter} from the {@code TokenProvider}, or
+ * else the remote address. The filter runs after the Spring Security filters, which installed the authentication.
+ * Every limited response carries the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and
+ * {@code RateLimit-Reset} headers, and a throttled request is answered with {@code 429 (Too Many Requests)} and
+ * {@code Retry-After}, counted in the {@code rate.limit.throttled} meter.
+ * <p>
+ * A bucket is a single {@link AtomicLong}, updated without locking. A bucket full again is the same as no bucket, so
+ * such buckets are evicted every minute, and at most every second while the {@code max-clients} buckets are all in
+ * use; beyond them, new clients share one overflow bucket per limit, so that a flood of clients is throttled rather
+ * than let through, without scanning all buckets for each of them.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String RATE_LIMIT_LIMIT = "RateLimit-Limit";
+
+    public static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+
+    public static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+
+    static final String THROTTLED_METER_NAME = "rate.limit.throttled";
+
+    static final String CLIENTS_METER_NAME = "rate.limit.clients";
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final long FORCED_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Clock clock;
+
+    private final int maxClients;
+
+    private final List<Limit> limits;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Map<String, TokenBucket> overflowBuckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextSweep;
+
+    private final AtomicLong nextForcedSweep;
+
+    public RateLimitFilter(MeterRegistry meterRegistry, ApplicationProperties.RateLimit properties) {
+        this.meterRegistry = meterRegistry;
+        this.clock = meterRegistry.config().clock();
+        this.maxClients = properties.getMaxClients();
+        this.limits = properties.getLimits().stream().map(Limit::new).collect(Collectors.toList());
+        this.nextSweep = new AtomicLong(clock.monotonicTime() + SWEEP_INTERVAL_NANOS);
+        this.nextForcedSweep = new AtomicLong(clock.monotonicTime());
+        Gauge.builder(CLIENTS_METER_NAME, buckets, Map::size).description("Clients with a rate limit bucket").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        Limit limit = findLimit(urlPathHelper.getPathWithinApplication(request));
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long now = clock.monotonicTime();
+        sweep(nextSweep, SWEEP_INTERVAL_NANOS, now);
+        String client = client(request);
+        TokenBucket bucket = bucket(limit.name + " " + client, limit, now);
+        long waitNanos = bucket.tryConsume(now);
+        response.setHeader(RATE_LIMIT_LIMIT, String.valueOf(limit.capacity));
+        response.setHeader(RATE_LIMIT_REMAINING, String.valueOf(bucket.remaining(now)));
+        response.setHeader(RATE_LIMIT_RESET, String.valueOf(seconds(bucket.nanosUntilFull(now))));
+        if (waitNanos > 0) {
+            log.debug("Throttled {} {} of {} by limit {}", request.getMethod(), request.getRequestURI(), client, limit.name);
+            Counter
+                .builder(THROTTLED_METER_NAME)
+                .description("Requests rejected by the rate limit of their client")
+                .tag("limit", limit.name)
+                .register(meterRegistry)
+                .increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds(waitNanos)));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded, retry later");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Limit findLimit(String path) {
+        for (Limit limit : limits) {
+            if (limit.matches(pathMatcher, path)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    private static String client(HttpServletRequest request) {
+        if (SecurityUtils.isAuthenticated()) {
+            return SecurityUtils.getCurrentUserLogin().map(login -> "user " + login).orElse("ip " + request.getRemoteAddr());
+        }
+        return "ip " + request.getRemoteAddr();
+    }
+
+    private TokenBucket bucket(String key, Limit limit, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                sweep(nextForcedSweep, FORCED_SWEEP_INTERVAL_NANOS, now);
+                if (buckets.size() >= maxClients) {
+                    return overflowBuckets.computeIfAbsent(limit.name, k -> new TokenBucket(limit, now));
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit, now));
+        }
+        return bucket;
+    }
+
+    /**
+     * Evict the buckets full again, once every {@code intervalNanos}, on the thread which first sees it due.
+     */
+    private void sweep(AtomicLong next, long intervalNanos, long now) {
+        long due = next.get();
+        if (now - due >= 0 && next.compareAndSet(due, now + intervalNanos)) {
+            evictFullBuckets(now);
+        }
+    }
+
+    /**
+     * Evict the buckets full again, each only if it is still the bucket of its client. A bucket a token was taken from
+     * while it was evicted is put back, unless its client already has a new one.
+     */
+    private void evictFullBuckets(long now) {
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            TokenBucket bucket = entry.getValue();
+            if (bucket.nanosUntilFull(now) == 0 && buckets.remove(entry.getKey(), bucket) && bucket.nanosUntilFull(now) > 0) {
+                buckets.putIfAbsent(entry.getKey(), bucket);
+            }
+        }
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static final class Limit {
+
+        private final String name;
+
+        private final List<String> paths;
+
+        private final String authority;
+
+        private final int capacity;
+
+        private final long tokenNanos;
+
+        Limit(ApplicationProperties.RateLimit.Limit limit) {
+            this.name = limit.getName();
+            this.paths = List.copyOf(limit.getPaths());
+            this.authority = limit.getAuthority();
+            this.capacity = limit.getCapacity();
+            this.tokenNanos = limit.getRefillPeriod().toNanos() / limit.getRefillTokens();
+        }
+
+        boolean matches(PathMatcher pathMatcher, String path) {
+            return (
+                (authority == null || SecurityUtils.hasCurrentUserThisAuthority(authority)) &&
+                paths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))
+            );
+        }
+    }
+
+    /**
+     * A token bucket kept as the time at which it is full again: taking a token pushes it one token later, which is
+     * refused when it would be more than {@code capacity} tokens ahead of now.
+     */
+    static final class TokenBucket {
+
+        private final long tokenNanos;
+
+        private final long capacityNanos;
+
+        private final AtomicLong fullAt;
+
+        TokenBucket(Limit limit, long now) {
+            this.tokenNanos = limit.tokenNanos;
+            this.capacityNanos = limit.capacity * limit.tokenNanos;
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return {@code 0} if a token was taken, or else the time to wait for one, in nanoseconds.
+         */
+        long tryConsume(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current - now, 0) + tokenNanos;
+                if (next > capacityNanos) {
+                    return next - capacityNanos;
+                }
+                if (fullAt.compareAndSet(current, now + next)) {
+                    return 0;
+                }
+            }
+        }
+
+        long remaining(long now) {
+            return (capacityNanos - nanosUntilFull(now)) / tokenNanos;
+        }
+
+        long nanosUntilFull(long now) {
+            return Math.max(fullAt.get() - now, 0);
+        }
+    }
+}
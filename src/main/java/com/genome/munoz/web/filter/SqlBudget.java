@@ -0,0 +1,23 @@
+package com.genome.munoz.web.filter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The maximum number of SQL statements a REST endpoint may issue per request, checked by {@link SqlStatisticsFilter}.
+ * <p>
+ * A request over budget is logged, and fails when {@code application.sql-statistics.fail-on-budget-exceeded} is set,
+ * as in the integration tests.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SqlBudget {
+    /**
+     * @return the maximum number of statements, a JDBC batch counting as one.
+     */
+    int statements();
+}
@@ -0,0 +1,203 @@
+package com.genome.munoz.web.filter;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.genome.munoz.management.SqlStatistics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the SQL statements issued by each request: their number, the rows they fetched and their JDBC time.
+ * <p>
+ * The statistics are published as the {@code sql.request.*} meters, tagged by method and URI pattern, and in a
+ * {@code Server-Timing} header when {@code application.sql-statistics.server-timing} is set. The header is added
+ * when the response body is first written, so statements issued after that, if any, are not part of it.
+ * <p>
+ * Requests are checked against the {@link SqlBudget} of their endpoint, and a {@code SELECT} repeated
+ * {@code repeated-select-threshold} times or more is logged as a likely N+1 selects problem.
+ */
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    static final String STATEMENTS_METER_NAME = "sql.request.statements";
+
+    static final String ROWS_METER_NAME = "sql.request.rows";
+
+    static final String TIME_METER_NAME = "sql.request.time";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final Logger log = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationProperties.SqlStatistics properties;
+
+    public SqlStatisticsFilter(MeterRegistry meterRegistry, ApplicationProperties.SqlStatistics properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        ServerTimingResponse serverTimingResponse = properties.isServerTiming() ? new ServerTimingResponse(response, statistics) : null;
+        try {
+            filterChain.doFilter(request, serverTimingResponse != null ? serverTimingResponse : response);
+        } finally {
+            SqlStatistics.stop();
+        }
+        if (serverTimingResponse != null) {
+            serverTimingResponse.addServerTiming();
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        log.debug("{} {}: {}", request.getMethod(), uri, statistics);
+        record(request.getMethod(), uri, statistics);
+        if (statistics.getMostRepeatedSelectCount() >= properties.getRepeatedSelectThreshold()) {
+            log.warn(
+                "Likely N+1 selects in {} {}: {} times {}",
+                request.getMethod(),
+                uri,
+                statistics.getMostRepeatedSelectCount(),
+                statistics.getMostRepeatedSelect()
+            );
+        }
+        SqlBudget budget = budget(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+        if (budget != null && statistics.getStatements() > budget.statements()) {
+            String message = String.format(
+                Locale.ROOT,
+                "%s %s issued %d SQL statements, over its budget of %d",
+                request.getMethod(),
+                uri,
+                statistics.getStatements(),
+                budget.statements()
+            );
+            if (properties.isFailOnBudgetExceeded()) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    private void record(String method, String uri, SqlStatistics statistics) {
+        Tags tags = Tags.of("method", method, "uri", uri);
+        DistributionSummary
+            .builder(STATEMENTS_METER_NAME)
+            .description("SQL statements issued per request")
+            .baseUnit("statements")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(statistics.getStatements());
+        DistributionSummary
+            .builder(ROWS_METER_NAME)
+            .description("Rows fetched per request")
+            .baseUnit("rows")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(statistics.getRows());
+        Timer
+            .builder(TIME_METER_NAME)
+            .description("Time spent executing SQL statements per request")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static SqlBudget budget(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return null;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        SqlBudget budget = handlerMethod.getMethodAnnotation(SqlBudget.class);
+        return budget != null ? budget : AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), SqlBudget.class);
+    }
+
+    static String serverTiming(SqlStatistics statistics) {
+        return String.format(
+            Locale.ROOT,
+            "db;dur=%.3f;desc=\"%d statements, %d rows\"",
+            statistics.getJdbcNanos() / 1_000_000.0,
+            statistics.getStatements(),
+            statistics.getRows()
+        );
+    }
+
+    /**
+     * Adds the {@code Server-Timing} header before the response is committed.
+     */
+    private static class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatistics statistics;
+
+        private boolean added;
+
+        ServerTimingResponse(HttpServletResponse response, SqlStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        void addServerTiming() {
+            if (!added && !isCommitted()) {
+                addHeader(SERVER_TIMING, serverTiming(statistics));
+            }
+            added = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+}
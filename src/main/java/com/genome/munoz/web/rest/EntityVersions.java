@@ -0,0 +1,180 @@
+package com.genome.munoz.web.rest;
+
+import com.genome.munoz.repository.TableVersion;
+import com.genome.munoz.web.rest.errors.BadRequestAlertException;
+import com.genome.munoz.web.rest.errors.PreconditionFailedAlertException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Optimistic versioning of the REST resources: the version of an entity is its {@code ETag}, and updates are
+ * conditional on the version given in {@code If-Match}, or else in the request body.
+ * <p>
+ * Reads are conditional on {@code If-None-Match}: the {@code ETag} of a collection read from whole tables is made of
+ * their {@link TableVersion}, so that both can be checked with a cheap query before anything is loaded.
+ * <p>
+ * The {@code ETag} of a read names the version and the representation negotiated with {@code Accept}: the bare
+ * version for JSON, suffixed with {@code -cbor} or {@code -smile} for the binary formats, as their bytes differ. The
+ * conditional reads answer with {@code Vary: Accept} so that caches keep one representation per format. Updates
+ * match {@code If-Match} on the version only, whatever the suffixes.
+ */
+final class EntityVersions {
+
+    static final String PREFER = "Prefer";
+
+    private static final Map<MediaType, String> BINARY_FORMATS = Map.of(
+        MediaType.APPLICATION_CBOR,
+        "cbor",
+        new MediaType("application", "x-jackson-smile"),
+        "smile"
+    );
+
+    private EntityVersions() {}
+
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String etag(TableVersion... tables) {
+        return Arrays
+            .stream(tables)
+            .map(table -> table.getRowCount() + "-" + table.getMaxId() + "-" + table.getVersionSum())
+            .collect(Collectors.joining(".", "\"", "\""));
+    }
+
+    /**
+     * @return the {@code ETag} of the representation of {@code etag} negotiated with {@code Accept}: JSON, unless a
+     * binary format is preferred to it.
+     */
+    static String representation(String etag, String accept) {
+        String format = format(accept);
+        return format != null ? etag.substring(0, etag.length() - 1) + "-" + format + "\"" : etag;
+    }
+
+    /**
+     * @return the binary format preferred by {@code Accept}, or {@code null} for JSON, as the message converters do.
+     */
+    private static String format(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0 || mediaType.includes(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            for (Map.Entry<MediaType, String> format : BINARY_FORMATS.entrySet()) {
+                if (mediaType.includes(format.getKey())) {
+                    return format.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the version of a whole table, computed from its loaded rows.
+     */
+    static TableVersion tableVersion(long rowCount, long maxId, long versionSum) {
+        return new TableVersion() {
+            @Override
+            public Long getRowCount() {
+                return rowCount;
+            }
+
+            @Override
+            public Long getMaxId() {
+                return maxId;
+            }
+
+            @Override
+            public Long getVersionSum() {
+                return versionSum;
+            }
+        };
+    }
+
+    /**
+     * Whether {@code If-None-Match} is {@code *} or lists the {@code ETag}, compared weakly as RFC 7232 requires.
+     */
+    static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModifiedResponse(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    /**
+     * @return the version the update must match, or {@code null} if any version matches.
+     */
+    static Long expectedVersion(String ifMatch, Long bodyVersion, String entityName) {
+        if (ifMatch == null) {
+            return bodyVersion;
+        }
+        String tag = ifMatch.trim();
+        if ("*".equals(tag)) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        // The representation suffixes of the read ETag, if any
+        int suffix = tag.indexOf('-');
+        if (suffix > 0) {
+            tag = tag.substring(0, suffix);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedAlertException("Invalid If-Match", entityName, "versioninvalid");
+        }
+    }
+
+    /**
+     * @return the error of an update which matched no row: the entity does not exist, or has another version.
+     */
+    static RuntimeException notUpdated(boolean exists, String ifMatch, String entityName) {
+        if (!exists) {
+            return new BadRequestAlertException("Entity not found", entityName, "idnotfound");
+        }
+        if (ifMatch != null) {
+            return new PreconditionFailedAlertException("The version does not match If-Match", entityName, "versionmismatch");
+        }
+        return new ConcurrencyFailureException("The " + entityName + " was updated by another request");
+    }
+
+    /**
+     * Whether the client asked for no body in the response (RFC 7240), which saves reading the updated entity.
+     */
+    static boolean prefersMinimalReturn(String prefer) {
+        return prefer != null && prefer.replace(" ", "").contains("return=minimal");
+    }
+}
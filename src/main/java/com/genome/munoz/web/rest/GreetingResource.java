@@ -1,17 +1,26 @@
 package com.genome.munoz.web.rest;
 
-import com.genome.munoz.domain.Greeting;
 import com.genome.munoz.repository.GreetingRepository;
+import com.genome.munoz.repository.TableVersion;
+import com.genome.munoz.service.BulkDeleteService;
+import com.genome.munoz.service.ReadCoalescer;
+import com.genome.munoz.service.dto.GreetingDTO;
+import com.genome.munoz.service.mapper.GreetingMapper;
+import com.genome.munoz.web.filter.SqlBudget;
 import com.genome.munoz.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
@@ -29,30 +38,46 @@ public class GreetingResource {
 
     private static final String ENTITY_NAME = "genomeGreeting";
 
+    private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final GreetingRepository greetingRepository;
 
+    private final GreetingMapper greetingMapper;
+
+    private final BulkDeleteService bulkDeleteService;
 
-    public GreetingResource(GreetingRepository greetingRepository) {
+    private final ReadCoalescer readCoalescer;
+
+    public GreetingResource(
+        GreetingRepository greetingRepository,
+        GreetingMapper greetingMapper,
+        BulkDeleteService bulkDeleteService,
+        ReadCoalescer readCoalescer
+    ) {
         this.greetingRepository = greetingRepository;
+        this.greetingMapper = greetingMapper;
+        this.bulkDeleteService = bulkDeleteService;
+        this.readCoalescer = readCoalescer;
     }
 
     /**
      * {@code POST  /greeting} : Create a new greeting.
      *
-     * @param greeting the greeting to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new greeting, or with status {@code 400 (Bad Request)} if the greeting has already an ID.
+     * @param greetingDTO the greetingDTO to create.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new greetingDTO, or with status {@code 400 (Bad Request)} if the greeting has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/greeting")
-    public ResponseEntity<Greeting> createGreeting(@RequestBody Greeting greeting) throws URISyntaxException {
-        log.debug("REST request to save Greeting : {}", greeting);
-        if (greeting.getId() != null) {
+    @SqlBudget(statements = 2)
+    public ResponseEntity<GreetingDTO> createGreeting(@RequestBody GreetingDTO greetingDTO) throws URISyntaxException {
+        log.debug("REST request to save Greeting : {}", greetingDTO);
+        if (greetingDTO.getId() != null) {
             throw new BadRequestAlertException("A new greeting cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        Greeting result = greetingRepository.save(greeting);
+        GreetingDTO result = greetingMapper.toDto(greetingRepository.save(greetingMapper.toEntity(greetingDTO)));
         return ResponseEntity
             .created(new URI("/api/greeting/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
@@ -61,105 +86,188 @@ public class GreetingResource {
 
     /**
      * {@code PUT  /greeting/:id} : Updates an existing greeting.
+     * <p>
+     * The update is a single conditional {@code UPDATE}, on the version given in {@code If-Match}, or else in the body.
      *
      * @param id the id of the greeting to save.
-     * @param greeting the greeting to update.
+     * @param greetingDTO the greetingDTO to update.
+     * @param ifMatch the {@code ETag} of the version to update, if any.
+     * @param prefer {@code return=minimal} to get no body back.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated greeting,
+     * or with status {@code 204 (No Content)} if {@code return=minimal} is preferred,
      * or with status {@code 400 (Bad Request)} if the greeting is not valid,
+     * or with status {@code 409 (Conflict)} if the greeting has another version than the body,
+     * or with status {@code 412 (Precondition Failed)} if the greeting has another version than {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the greeting couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/greeting/{id}")
-    public ResponseEntity<Greeting> updateGreeting(
+    @SqlBudget(statements = 2)
+    public ResponseEntity<GreetingDTO> updateGreeting(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody Greeting greeting
+        @RequestBody GreetingDTO greetingDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestHeader(value = EntityVersions.PREFER, required = false) String prefer
     ) throws URISyntaxException {
-        log.debug("REST request to update Greeting : {}, {}", id, greeting);
-        if (greeting.getId() == null) {
+        log.debug("REST request to update Greeting : {}, {}", id, greetingDTO);
+        if (greetingDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        if (!Objects.equals(id, greeting.getId())) {
+        if (!Objects.equals(id, greetingDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!greetingRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Greeting result = greetingRepository.save(greeting);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, greeting.getId().toString()))
-            .body(result);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("greeting", greetingDTO.getGreeting());
+        return conditionalUpdate(id, greetingDTO.getVersion(), attributes, ifMatch, prefer);
     }
 
     /**
      * {@code PATCH  /greeting/:id} : Partial updates given fields of an existing greeting, field will ignore if it is null
+     * <p>
+     * The update is a single conditional {@code UPDATE}, on the version given in {@code If-Match}, or else in the body.
      *
      * @param id the id of the greeting to save.
-     * @param greeting the greeting to update.
+     * @param greetingDTO the greetingDTO to update.
+     * @param ifMatch the {@code ETag} of the version to update, if any.
+     * @param prefer {@code return=minimal} to get no body back.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated greeting,
+     * or with status {@code 204 (No Content)} if {@code return=minimal} is preferred,
      * or with status {@code 400 (Bad Request)} if the greeting is not valid,
      * or with status {@code 404 (Not Found)} if the greeting is not found,
+     * or with status {@code 409 (Conflict)} if the greeting has another version than the body,
+     * or with status {@code 412 (Precondition Failed)} if the greeting has another version than {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the greeting couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/greeting/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public ResponseEntity<Greeting> partialUpdateGreeting(
+    @SqlBudget(statements = 2)
+    public ResponseEntity<GreetingDTO> partialUpdateGreeting(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody Greeting greeting
+        @RequestBody GreetingDTO greetingDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestHeader(value = EntityVersions.PREFER, required = false) String prefer
     ) throws URISyntaxException {
-        log.debug("REST request to partial update Greeting partially : {}, {}", id, greeting);
-        if (greeting.getId() == null) {
+        log.debug("REST request to partial update Greeting partially : {}, {}", id, greetingDTO);
+        if (greetingDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        if (!Objects.equals(id, greeting.getId())) {
+        if (!Objects.equals(id, greetingDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!greetingRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Map<String, Object> attributes = new HashMap<>();
+        if (greetingDTO.getGreeting() != null) {
+            attributes.put("greeting", greetingDTO.getGreeting());
         }
+        return conditionalUpdate(id, greetingDTO.getVersion(), attributes, ifMatch, prefer);
+    }
 
-        Optional<Greeting> result = greetingRepository
-            .findById(greeting.getId())
-            .map(existingGreeting -> {
-                if (greeting.getGreeting() != null) {
-                    existingGreeting.setGreeting(greeting.getGreeting());
-                }
-
-                return existingGreeting;
-            })
-            .map(greetingRepository::save);
+    /**
+     * Update the attributes of the greeting if its version matches, without loading it first.
+     * <p>
+     * Only a failed update reads the greeting, to tell a missing one from a concurrent update.
+     */
+    private ResponseEntity<GreetingDTO> conditionalUpdate(
+        Long id,
+        Long bodyVersion,
+        Map<String, Object> attributes,
+        String ifMatch,
+        String prefer
+    ) {
+        Long expectedVersion = EntityVersions.expectedVersion(ifMatch, bodyVersion, ENTITY_NAME);
+        if (!greetingRepository.updateIfVersionMatches(id, expectedVersion, attributes)) {
+            throw EntityVersions.notUpdated(greetingRepository.existsById(id), ifMatch, ENTITY_NAME);
+        }
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, greeting.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString());
+        if (EntityVersions.prefersMinimalReturn(prefer)) {
+            if (expectedVersion != null) {
+                headers.setETag(EntityVersions.etag(expectedVersion + 1));
+            }
+            return ResponseEntity.noContent().headers(headers).build();
+        }
+        Optional<GreetingDTO> result = greetingRepository.findById(id).map(greetingMapper::toDto);
+        result.ifPresent(updated -> headers.setETag(EntityVersions.etag(updated.getVersion())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
      * {@code GET  /greeting} : get all the greetings.
+     * <p>
+     * With {@code If-None-Match}, the {@code ETag} is checked against the version of the greeting table first.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of greetings in body.
+     * @param ifNoneMatch the {@code ETag} of the greetings the client already has, if any.
+     * @param accept the formats the client accepts.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of greetings in body,
+     * or with status {@code 304 (Not Modified)} if they did not change.
      */
     @GetMapping("/greetings")
-    public List<Greeting> getAllGreetings() {
+    @Transactional(readOnly = true)
+    @SqlBudget(statements = 2)
+    public ResponseEntity<List<GreetingDTO>> getAllGreetings(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
         log.debug("REST request to get all Greetings");
-        return greetingRepository.findAll();
+        if (ifNoneMatch != null) {
+            String etag = EntityVersions.representation(EntityVersions.etag(greetingRepository.findTableVersion()), accept);
+            if (EntityVersions.notModified(ifNoneMatch, etag)) {
+                return EntityVersions.notModifiedResponse(etag);
+            }
+        }
+        List<GreetingRepository.GreetingSummary> greetings = greetingRepository.findAllSummaries();
+        // The same version as the query, from the rows just read
+        TableVersion loaded = EntityVersions.tableVersion(
+            greetings.size(),
+            greetings.stream().mapToLong(GreetingRepository.GreetingSummary::getId).max().orElse(0),
+            greetings.stream().mapToLong(GreetingRepository.GreetingSummary::getVersion).sum()
+        );
+        return ResponseEntity
+            .ok()
+            .eTag(EntityVersions.representation(EntityVersions.etag(loaded), accept))
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(greetingMapper.fromSummaries(greetings));
     }
 
     /**
      * {@code GET  /greeting/:id} : get the "id" greeting.
+     * <p>
+     * With {@code If-None-Match}, the {@code ETag} is checked against the version of the greeting before loading it.
+     * Concurrent reads of the same greeting share one load.
      *
      * @param id the id of the greeting to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the greeting, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the {@code ETag} of the greeting the client already has, if any.
+     * @param accept the formats the client accepts.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the greeting,
+     * or with status {@code 304 (Not Modified)} if it did not change, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/greeting/{id}")
-    public ResponseEntity<Greeting> getGreeting(@PathVariable Long id) {
+    @Transactional(readOnly = true)
+    @SqlBudget(statements = 2)
+    public ResponseEntity<GreetingDTO> getGreeting(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
         log.debug("REST request to get Greeting : {}", id);
-        Optional<Greeting> greeting = greetingRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(greeting);
+        if (ifNoneMatch != null) {
+            Optional<String> etag = greetingRepository
+                .findVersionById(id)
+                .map(version -> EntityVersions.representation(EntityVersions.etag(version), accept));
+            if (etag.isPresent() && EntityVersions.notModified(ifNoneMatch, etag.get())) {
+                return EntityVersions.notModifiedResponse(etag.get());
+            }
+        }
+        Optional<GreetingDTO> greetingDTO = readCoalescer.load(
+            "greeting",
+            id,
+            () -> greetingRepository.findById(id).map(greetingMapper::toDto)
+        );
+        HttpHeaders headers = new HttpHeaders();
+        greetingDTO.ifPresent(found -> headers.setETag(EntityVersions.representation(EntityVersions.etag(found.getVersion()), accept)));
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        return ResponseUtil.wrapOrNotFound(greetingDTO, headers);
     }
 
     /**
@@ -169,6 +277,7 @@ public class GreetingResource {
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
     @DeleteMapping("/greeting/{id}")
+    @SqlBudget(statements = 2)
     public ResponseEntity<Void> deleteGreeting(@PathVariable Long id) {
         log.debug("REST request to delete Greeting : {}", id);
         greetingRepository.deleteById(id);
@@ -177,4 +286,25 @@ public class GreetingResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code DELETE  /greeting} : delete greetings in bulk, with their messages or keeping them without greeting.
+     * <p>
+     * Greetings are deleted in chunks, each committed on its own: a failed request may have deleted some of them.
+     *
+     * @param ids the ids of the greetings to delete, in the request body.
+     * @param withMessages whether to delete the messages of the greetings too.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)} and the number of deleted greetings in the
+     * {@code X-Total-Count} header.
+     */
+    @DeleteMapping("/greeting")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<Void> deleteGreetingsInBulk(
+        @RequestBody List<Long> ids,
+        @RequestParam(value = "withMessages", defaultValue = "false") boolean withMessages
+    ) {
+        log.debug("REST request to delete {} Greetings in bulk, with their messages: {}", ids.size(), withMessages);
+        long deleted = bulkDeleteService.deleteGreetings(ids, withMessages);
+        return ResponseEntity.noContent().header(HEADER_X_TOTAL_COUNT, Long.toString(deleted)).build();
+    }
 }
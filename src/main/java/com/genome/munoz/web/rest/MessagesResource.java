@@ -1,22 +1,50 @@
 package com.genome.munoz.web.rest;
 
+import com.genome.munoz.domain.Greeting;
 import com.genome.munoz.domain.Messages;
+import com.genome.munoz.repository.GreetingRepository;
+import com.genome.munoz.repository.MessagesArchiveRepository;
 import com.genome.munoz.repository.MessagesRepository;
+import com.genome.munoz.repository.MessagesUpsertRepository;
+import com.genome.munoz.repository.TableVersion;
+import com.genome.munoz.service.BulkDeleteService;
+import com.genome.munoz.service.MessagesSearchService;
+import com.genome.munoz.service.MessagesStatsService;
+import com.genome.munoz.service.ReadCoalescer;
+import com.genome.munoz.service.dto.MessagesDTO;
+import com.genome.munoz.service.dto.MessagesStatsDTO;
+import com.genome.munoz.service.mapper.MessagesMapper;
+import com.genome.munoz.web.filter.SqlBudget;
 import com.genome.munoz.web.rest.errors.BadRequestAlertException;
 
-import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
@@ -32,13 +60,59 @@ public class MessagesResource {
 
     private static final String ENTITY_NAME = "genomeMessages";
 
+    private static final int LATEST_MESSAGES_SIZE = 3;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    private static final Instant RANGE_START = Instant.parse("0001-01-01T00:00:00Z");
+
+    private static final Instant RANGE_END = Instant.parse("9999-12-31T23:59:59Z");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final MessagesRepository messagesRepository;
 
-    public MessagesResource(MessagesRepository messagesRepository) {
+    private final MessagesMapper messagesMapper;
+
+    private final MessagesSearchService messagesSearchService;
+
+    private final MessagesUpsertRepository messagesUpsertRepository;
+
+    private final BulkDeleteService bulkDeleteService;
+
+    private final MessagesArchiveRepository messagesArchiveRepository;
+
+    private final MessagesStatsService messagesStatsService;
+
+    private final GreetingRepository greetingRepository;
+
+    private final ReadCoalescer readCoalescer;
+
+    public MessagesResource(
+        MessagesRepository messagesRepository,
+        MessagesMapper messagesMapper,
+        MessagesSearchService messagesSearchService,
+        MessagesUpsertRepository messagesUpsertRepository,
+        BulkDeleteService bulkDeleteService,
+        MessagesArchiveRepository messagesArchiveRepository,
+        MessagesStatsService messagesStatsService,
+        GreetingRepository greetingRepository,
+        ReadCoalescer readCoalescer
+    ) {
         this.messagesRepository = messagesRepository;
+        this.messagesMapper = messagesMapper;
+        this.messagesSearchService = messagesSearchService;
+        this.messagesUpsertRepository = messagesUpsertRepository;
+        this.bulkDeleteService = bulkDeleteService;
+        this.messagesArchiveRepository = messagesArchiveRepository;
+        this.messagesStatsService = messagesStatsService;
+        this.greetingRepository = greetingRepository;
+        this.readCoalescer = readCoalescer;
     }
 
     /**
@@ -61,133 +135,382 @@ public class MessagesResource {
 //            .body(result);
 //    }
     @PostMapping("/messages")
-    public List<Messages> createMessages() throws URISyntaxException {
-        Integer sizeLst =  messagesRepository.findAll().size();
-        Integer currentSize = sizeLst + 1;
+    @SqlBudget(statements = 4)
+    public List<MessagesDTO> createMessages() throws URISyntaxException {
+        long currentSize = messagesRepository.count() + 1;
         Messages messages = new Messages();
-        messages.setId((long) currentSize);
         messages.setHireDate(Instant.now());
         messages.setMessage("Default new last message, total of rows " + currentSize);
-        Messages result = messagesRepository.save(messages);
-        ResponseEntity
-            .created(new URI("/api/messages/" + result.getId()))
-            .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
-            .body(result);
-        List<Messages> resultList = messagesRepository.findAll();
-        List<Messages> resultListLast = resultList.subList(Math.max(resultList.size() - 3, 0), resultList.size());
-        resultListLast.get(0).setMessage("Total of rows :" + currentSize);
-        return resultListLast;
+        messagesRepository.save(messages);
+        return latestMessagesSummary(currentSize);
     }
 
-
     /**
      * {@code PUT  /messages/:id} : Updates an existing messages.
+     * <p>
+     * The update is a single conditional {@code UPDATE}, on the version given in {@code If-Match}, or else in the body.
      *
      * @param id the id of the messages to save.
-     * @param messages the messages to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated messages,
-     * or with status {@code 400 (Bad Request)} if the messages is not valid,
+     * @param messagesDTO the messagesDTO to update.
+     * @param ifMatch the {@code ETag} of the version to update, if any.
+     * @param prefer {@code return=minimal} to get no body back.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated messagesDTO,
+     * or with status {@code 204 (No Content)} if {@code return=minimal} is preferred,
+     * or with status {@code 400 (Bad Request)} if the messagesDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the messages has another version than the body,
+     * or with status {@code 412 (Precondition Failed)} if the messages has another version than {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the messages couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/messages/{id}")
-    public ResponseEntity<Messages> updateMessages(
+    @SqlBudget(statements = 3)
+    public ResponseEntity<MessagesDTO> updateMessages(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody Messages messages
+        @RequestBody MessagesDTO messagesDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestHeader(value = EntityVersions.PREFER, required = false) String prefer
     ) throws URISyntaxException {
-        log.debug("REST request to update Messages : {}, {}", id, messages);
+        log.debug("REST request to update Messages : {}, {}", id, messagesDTO);
+        Messages messages = messagesMapper.toEntity(messagesDTO);
         if (messages.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
         if (!Objects.equals(id, messages.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
-
-        if (!messagesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (messages.getHireDate() == null) {
+            throw new BadRequestAlertException("Invalid hire date", ENTITY_NAME, "hiredatenull");
         }
 
-        Messages result = messagesRepository.save(messages);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, messages.getId().toString()))
-            .body(result);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("message", messages.getMessage());
+        attributes.put("hireDate", messages.getHireDate());
+        // The update binds a reference rather than the deserialized greeting, which is detached and may carry only its id
+        Greeting greeting = messages.getGreeting();
+        if (greeting != null && greeting.getId() == null) {
+            throw new BadRequestAlertException("Invalid greeting id", ENTITY_NAME, "greetingidnull");
+        }
+        attributes.put("greeting", greeting != null ? greetingRepository.getById(greeting.getId()) : null);
+        return conditionalUpdate(id, messages.getVersion(), attributes, ifMatch, prefer);
     }
 
     /**
      * {@code PATCH  /messages/:id} : Partial updates given fields of an existing messages, field will ignore if it is null
+     * <p>
+     * The update is a single conditional {@code UPDATE}, on the version given in {@code If-Match}, or else in the body.
      *
      * @param id the id of the messages to save.
-     * @param messages the messages to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated messages,
-     * or with status {@code 400 (Bad Request)} if the messages is not valid,
+     * @param messagesDTO the messagesDTO to update.
+     * @param ifMatch the {@code ETag} of the version to update, if any.
+     * @param prefer {@code return=minimal} to get no body back.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated messagesDTO,
+     * or with status {@code 204 (No Content)} if {@code return=minimal} is preferred,
+     * or with status {@code 400 (Bad Request)} if the messagesDTO is not valid,
      * or with status {@code 404 (Not Found)} if the messages is not found,
+     * or with status {@code 409 (Conflict)} if the messages has another version than the body,
+     * or with status {@code 412 (Precondition Failed)} if the messages has another version than {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the messages couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/messages/{id}", consumes = { "application/json", "application/merge-patch+json" })
-    public ResponseEntity<Messages> partialUpdateMessages(
+    @SqlBudget(statements = 3)
+    public ResponseEntity<MessagesDTO> partialUpdateMessages(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody Messages messages
+        @RequestBody MessagesDTO messagesDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestHeader(value = EntityVersions.PREFER, required = false) String prefer
     ) throws URISyntaxException {
-        log.debug("REST request to partial update Messages partially : {}, {}", id, messages);
-        if (messages.getId() == null) {
+        log.debug("REST request to partial update Messages partially : {}, {}", id, messagesDTO);
+        if (messagesDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        if (!Objects.equals(id, messages.getId())) {
+        if (!Objects.equals(id, messagesDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!messagesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Map<String, Object> attributes = new HashMap<>();
+        if (messagesDTO.getMessage() != null) {
+            attributes.put("message", messagesDTO.getMessage());
+        }
+        if (messagesDTO.getHireDate() != null) {
+            attributes.put("hireDate", messagesDTO.getHireDate());
         }
+        return conditionalUpdate(id, messagesDTO.getVersion(), attributes, ifMatch, prefer);
+    }
 
-        Optional<Messages> result = messagesRepository
-            .findById(messages.getId())
-            .map(existingMessages -> {
-                if (messages.getMessage() != null) {
-                    existingMessages.setMessage(messages.getMessage());
-                }
-                if (messages.getHireDate() != null) {
-                    existingMessages.setHireDate(messages.getHireDate());
-                }
+    /**
+     * Update the attributes of the messages if its version matches, without loading it first.
+     * <p>
+     * Only a failed update reads the messages, to tell a missing one from a concurrent update, and only an update of
+     * the hire date or greeting reads the previous hire date first, to refresh the statistics of its day.
+     */
+    private ResponseEntity<MessagesDTO> conditionalUpdate(
+        Long id,
+        Long bodyVersion,
+        Map<String, Object> attributes,
+        String ifMatch,
+        String prefer
+    ) {
+        Long expectedVersion = EntityVersions.expectedVersion(ifMatch, bodyVersion, ENTITY_NAME);
+        Optional<Instant> previousHireDate = attributes.containsKey("hireDate") || attributes.containsKey("greeting")
+            ? messagesRepository.findHireDateById(id)
+            : Optional.empty();
+        if (!messagesRepository.updateIfVersionMatches(id, expectedVersion, attributes)) {
+            throw EntityVersions.notUpdated(messagesRepository.existsById(id), ifMatch, ENTITY_NAME);
+        }
+        previousHireDate.ifPresent(hireDate ->
+            messagesStatsService.hireDatesChanged(Arrays.asList(hireDate, (Instant) attributes.get("hireDate")))
+        );
+        if (attributes.containsKey("message")) {
+            messagesSearchService.messageUpdated(id, (String) attributes.get("message"));
+        }
 
-                return existingMessages;
-            })
-            .map(messagesRepository::save);
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString());
+        if (EntityVersions.prefersMinimalReturn(prefer)) {
+            if (expectedVersion != null) {
+                headers.setETag(EntityVersions.etag(expectedVersion + 1));
+            }
+            return ResponseEntity.noContent().headers(headers).build();
+        }
+        Optional<MessagesDTO> result = messagesRepository.findById(id).map(messagesMapper::toDto);
+        result.ifPresent(updated -> headers.setETag(EntityVersions.etag(updated.getVersion())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
+    }
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, messages.getId().toString())
-        );
+    /**
+     * {@code PUT  /messages/upsert} : Create a messages, or update the one created with the same idempotency key.
+     * <p>
+     * A retried upsert neither creates the messages again nor changes its version. The idempotency key is unique per
+     * hire date, so a retry must send the same hire date: with another hire date, a second messages is created.
+     *
+     * @param messagesDTO the messagesDTO to upsert, with an {@code idempotencyKey} and a {@code hireDate}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the stored messages,
+     * or with status {@code 400 (Bad Request)} if the messages is not valid.
+     */
+    @PutMapping("/messages/upsert")
+    @SqlBudget(statements = 1)
+    public ResponseEntity<MessagesDTO> upsertMessages(@RequestBody MessagesDTO messagesDTO) {
+        log.debug("REST request to upsert Messages : {}", messagesDTO);
+        MessagesDTO result = upsert(List.of(messagesMapper.toEntity(messagesDTO))).get(0);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code PUT  /messages/upsert/batch} : Upsert a batch of messages, as {@code PUT /messages/upsert} does.
+     *
+     * @param messagesDTOs the messagesDTOs to upsert, with distinct idempotency keys.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the stored messages, in the order of
+     * the request, or with status {@code 400 (Bad Request)} if a messages is not valid.
+     */
+    @PutMapping("/messages/upsert/batch")
+    public ResponseEntity<List<MessagesDTO>> upsertMessagesBatch(@RequestBody List<MessagesDTO> messagesDTOs) {
+        log.debug("REST request to upsert a batch of {} Messages", messagesDTOs.size());
+        return ResponseEntity.ok().body(upsert(messagesMapper.toEntity(messagesDTOs)));
+    }
+
+    private List<MessagesDTO> upsert(List<Messages> messages) {
+        Set<String> keys = new HashSet<>();
+        for (Messages upserted : messages) {
+            if (upserted.getId() != null) {
+                throw new BadRequestAlertException("An upserted messages cannot have an ID", ENTITY_NAME, "idexists");
+            }
+            String key = upserted.getIdempotencyKey();
+            if (!StringUtils.hasText(key) || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new BadRequestAlertException("Invalid idempotency key", ENTITY_NAME, "idempotencykeyinvalid");
+            }
+            if (!keys.add(key)) {
+                throw new BadRequestAlertException("Duplicate idempotency key", ENTITY_NAME, "idempotencykeyduplicate");
+            }
+            if (upserted.getHireDate() == null) {
+                throw new BadRequestAlertException("Invalid hire date", ENTITY_NAME, "hiredatenull");
+            }
+        }
+        if (messages.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Messages> stored = messagesUpsertRepository
+            .upsert(messages)
+            .stream()
+            .collect(Collectors.toMap(Messages::getIdempotencyKey, Function.identity()));
+        stored.values().forEach(upserted -> messagesSearchService.messageUpdated(upserted.getId(), upserted.getMessage()));
+        messagesStatsService.hireDatesChanged(stored.values().stream().map(Messages::getHireDate).collect(Collectors.toList()));
+        return messages.stream().map(upserted -> messagesMapper.toDto(stored.get(upserted.getIdempotencyKey()))).collect(Collectors.toList());
     }
 
     /**
      * {@code GET  /messages} : get all the messages.
+     * <p>
+     * The {@code ETag} is made of the versions of the messages and greeting tables, read first: the latest messages
+     * are only read when it does not match {@code If-None-Match}, once for the concurrent reads of the same version.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of messages in body.
+     * @param ifNoneMatch the {@code ETag} of the messages the client already has, if any.
+     * @param accept the formats the client accepts.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of messages in body,
+     * or with status {@code 304 (Not Modified)} if they did not change.
      */
     @GetMapping("/greeting")
-    public List<Messages> getAllMessages() {
-        List<Messages> resultList = messagesRepository.findAll();
-        Integer sizeLst =  messagesRepository.findAll().size();
-        Integer currentSize = sizeLst + 1;
-        List<Messages> resultListLast = resultList.subList(Math.max(resultList.size() - 3, 0), resultList.size());
-        resultListLast.get(0).setMessage("Total of rows :" + currentSize);
-        return resultListLast;
+    @Transactional(readOnly = true)
+    @SqlBudget(statements = 3)
+    public ResponseEntity<List<MessagesDTO>> getAllMessages(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ) {
+        TableVersion messagesVersion = messagesRepository.findTableVersion();
+        String etag = EntityVersions.etag(messagesVersion, greetingRepository.findTableVersion());
+        String representationEtag = EntityVersions.representation(etag, accept);
+        if (EntityVersions.notModified(ifNoneMatch, representationEtag)) {
+            return EntityVersions.notModifiedResponse(representationEtag);
+        }
+        List<MessagesDTO> latest = readCoalescer.load(
+            "latest-messages",
+            etag,
+            () -> latestMessagesSummary(messagesVersion.getRowCount() + 1)
+        );
+        return ResponseEntity.ok().eTag(representationEtag).varyBy(HttpHeaders.ACCEPT).body(latest);
+    }
+
+    /**
+     * The latest messages, oldest first, with the first one replaced by the row count summary.
+     * <p>
+     * The summary is written to the DTOs only: the messages are read as projections, never as entities.
+     */
+    private List<MessagesDTO> latestMessagesSummary(long totalRows) {
+        List<MessagesDTO> latest = messagesMapper.fromSummaries(messagesRepository.findLatest(PageRequest.of(0, LATEST_MESSAGES_SIZE)));
+        Collections.reverse(latest);
+        if (!latest.isEmpty()) {
+            latest.get(0).setMessage("Total of rows :" + totalRows);
+        }
+        return latest;
+    }
+
+    /**
+     * {@code GET  /messages} : get a page of the messages hired in {@code [from, to)}, ordered by hire date then id.
+     * <p>
+     * Paging uses a keyset cursor instead of an offset: the next page is requested with the hire date and id of the
+     * last message of the current one, which the {@code Link} header with {@code rel="next"} already carries.
+     *
+     * @param from the inclusive lower bound of the hire date, unbounded if not set.
+     * @param to the exclusive upper bound of the hire date, unbounded if not set.
+     * @param afterHireDate the hire date of the last message of the previous page.
+     * @param afterId the id of the last message of the previous page.
+     * @param size the maximum number of messages to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of messages in body,
+     * or with status {@code 400 (Bad Request)} if the range or the cursor is not valid.
+     */
+    @GetMapping("/messages")
+    @Transactional(readOnly = true)
+    @SqlBudget(statements = 1)
+    public ResponseEntity<List<MessagesDTO>> getMessagesByHireDate(
+        @RequestParam(value = "from", required = false) Instant from,
+        @RequestParam(value = "to", required = false) Instant to,
+        @RequestParam(value = "afterHireDate", required = false) Instant afterHireDate,
+        @RequestParam(value = "afterId", required = false) Long afterId,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        log.debug("REST request to get Messages hired from {} to {} after ({}, {})", from, to, afterHireDate, afterId);
+        Instant rangeStart = from != null ? from : RANGE_START;
+        Instant rangeEnd = to != null ? to : RANGE_END;
+        if (!rangeStart.isBefore(rangeEnd)) {
+            throw new BadRequestAlertException("Invalid hire date range", ENTITY_NAME, "rangeinvalid");
+        }
+        if ((afterHireDate == null) != (afterId == null)) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        List<MessagesRepository.MessagesSummary> messages = afterHireDate == null
+            ? messagesRepository.findByHireDateRange(rangeStart, rangeEnd, page)
+            : messagesRepository.findByHireDateRangeAfter(rangeStart, rangeEnd, afterHireDate, afterId, page);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (messages.size() == page.getPageSize()) {
+            MessagesRepository.MessagesSummary last = messages.get(messages.size() - 1);
+            String next = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("afterHireDate", last.getHireDate())
+                .replaceQueryParam("afterId", last.getId())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(messagesMapper.fromSummaries(messages));
     }
 
     /**
-     * {@code GET  /messages/:id} : get the "id" messages.
+     * {@code GET  /messages/search} : search the messages containing all the words of the query, or words starting
+     * with them.
      *
-     * @param id the id of the messages to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the messages, or with status {@code 404 (Not Found)}.
+     * @param query the words to search.
+     * @param size the maximum number of messages to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the matching messages in body, most recently
+     * written first, with their total number in the {@code X-Total-Count} header,
+     * or with status {@code 400 (Bad Request)} if the query is blank.
+     */
+    @GetMapping("/messages/search")
+    @Transactional(readOnly = true)
+    @SqlBudget(statements = 1)
+    public ResponseEntity<List<MessagesDTO>> searchMessages(
+        @RequestParam("q") String query,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        log.debug("REST request to search Messages for : {}", query);
+        if (!StringUtils.hasText(query)) {
+            throw new BadRequestAlertException("Invalid query", ENTITY_NAME, "queryinvalid");
+        }
+        Page<MessagesDTO> page = messagesSearchService.search(query, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_X_TOTAL_COUNT, Long.toString(page.getTotalElements()));
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /messages/stats} : get the number of messages per greeting and per UTC day of their hire date,
+     * archived messages included.
+     * <p>
+     * The counts are read from the daily rollups, refreshed every few seconds, never from the messages themselves.
+     *
+     * @param from the first day.
+     * @param to the day after the last one.
+     * @param greetingId the greeting to count the messages of, all of them if not set.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts in body, in day then greeting
+     * order, or with status {@code 400 (Bad Request)} if the range is not valid.
+     */
+    @GetMapping("/messages/stats")
+    @Transactional(readOnly = true)
+    @SqlBudget(statements = 1)
+    public ResponseEntity<List<MessagesStatsDTO>> getMessagesStats(
+        @RequestParam("from") LocalDate from,
+        @RequestParam("to") LocalDate to,
+        @RequestParam(value = "greetingId", required = false) Long greetingId
+    ) {
+        log.debug("REST request to get Messages statistics from {} to {} for greeting {}", from, to, greetingId);
+        if (!from.isBefore(to)) {
+            throw new BadRequestAlertException("Invalid day range", ENTITY_NAME, "rangeinvalid");
+        }
+        return ResponseEntity.ok().body(messagesStatsService.findDailyCounts(from, to, greetingId));
+    }
+
+    /**
+     * {@code GET  /messages/:id} : get the "id" messages, from the archive if it has been moved there.
+     * <p>
+     * Concurrent reads of the same messages share one load.
+     *
+     * @param id the id of the messagesDTO to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the messagesDTO, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/messages/{id}")
-    public ResponseEntity<Messages> getMessages(@PathVariable Long id) {
+    @Transactional(readOnly = true)
+    @SqlBudget(statements = 2)
+    public ResponseEntity<MessagesDTO> getMessages(@PathVariable Long id) {
         log.debug("REST request to get Messages : {}", id);
-        Optional<Messages> messages = messagesRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(messages);
+        Optional<MessagesDTO> messagesDTO = readCoalescer.load(
+            "messages",
+            id,
+            () -> messagesRepository.findById(id).or(() -> messagesArchiveRepository.findById(id)).map(messagesMapper::toDto)
+        );
+        return ResponseUtil.wrapOrNotFound(messagesDTO);
     }
 
     /**
@@ -197,6 +520,7 @@ public class MessagesResource {
      * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
      */
     @DeleteMapping("/messages/{id}")
+    @SqlBudget(statements = 2)
     public ResponseEntity<Void> deleteMessages(@PathVariable Long id) {
         log.debug("REST request to delete Messages : {}", id);
         messagesRepository.deleteById(id);
@@ -205,4 +529,35 @@ public class MessagesResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code DELETE  /messages} : delete messages in bulk, either by id or hired in {@code [from, to)}.
+     * <p>
+     * Messages are deleted in chunks, each committed on its own: a failed request may have deleted some of them.
+     *
+     * @param ids the ids of the messages to delete, in the request body.
+     * @param from the inclusive lower bound of the hire date of the messages to delete.
+     * @param to the exclusive upper bound of the hire date of the messages to delete.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)} and the number of deleted messages in the
+     * {@code X-Total-Count} header, or with status {@code 400 (Bad Request)} if neither or both of the ids and the range
+     * are given, or if the range is not valid.
+     */
+    @DeleteMapping("/messages")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<Void> deleteMessagesInBulk(
+        @RequestBody(required = false) List<Long> ids,
+        @RequestParam(value = "from", required = false) Instant from,
+        @RequestParam(value = "to", required = false) Instant to
+    ) {
+        log.debug("REST request to delete Messages in bulk : {} ids, hired from {} to {}", ids == null ? 0 : ids.size(), from, to);
+        boolean byRange = from != null || to != null;
+        if (byRange == (ids != null)) {
+            throw new BadRequestAlertException("Either ids or a hire date range are required", ENTITY_NAME, "deletecriteriainvalid");
+        }
+        if (byRange && (from == null || to == null || !from.isBefore(to))) {
+            throw new BadRequestAlertException("Invalid hire date range", ENTITY_NAME, "rangeinvalid");
+        }
+        long deleted = byRange ? bulkDeleteService.deleteMessagesByHireDate(from, to) : bulkDeleteService.deleteMessages(ids);
+        return ResponseEntity.noContent().header(HEADER_X_TOTAL_COUNT, Long.toString(deleted)).build();
+    }
 }
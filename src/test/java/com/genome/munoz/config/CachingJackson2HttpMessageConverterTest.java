@@ -0,0 +1,67 @@
+package com.genome.munoz.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.genome.munoz.service.dto.GreetingDTO;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+/**
+ * Unit tests for the {@link CachingJackson2HttpMessageConverter} class.
+ */
+class CachingJackson2HttpMessageConverterTest {
+
+    private static final Type GREETINGS = ResolvableType.forClassWithGenerics(List.class, GreetingDTO.class).getType();
+
+    private ObjectMapper objectMapper;
+
+    private CachingJackson2HttpMessageConverter converter;
+
+    private List<GreetingDTO> greetings;
+
+    @BeforeEach
+    public void setup() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        converter = new CachingJackson2HttpMessageConverter(objectMapper);
+        GreetingDTO greeting = new GreetingDTO();
+        greeting.setId(1L);
+        greeting.setGreeting("Hello");
+        greeting.setVersion(0L);
+        greetings = List.of(greeting);
+    }
+
+    @Test
+    void shouldReuseWriterOfCollectionType() {
+        ObjectWriter writer = converter.findWriter(greetings, GREETINGS, MediaType.APPLICATION_JSON);
+
+        assertThat(writer).isNotNull();
+        assertThat(converter.findWriter(greetings, GREETINGS, MediaType.APPLICATION_JSON)).isSameAs(writer);
+    }
+
+    @Test
+    void shouldWriteOtherResponsesAsDefaultConverter() {
+        assertThat(converter.findWriter(greetings.get(0), GreetingDTO.class, MediaType.APPLICATION_JSON)).isNull();
+        assertThat(converter.findWriter(new MappingJacksonValue(greetings), GREETINGS, MediaType.APPLICATION_JSON)).isNull();
+        assertThat(converter.findWriter(greetings, GREETINGS, MediaType.TEXT_EVENT_STREAM)).isNull();
+        assertThat(converter.findWriter(greetings, GREETINGS, MediaType.parseMediaType("application/json;charset=UTF-16"))).isNull();
+        assertThat(converter.findWriter(greetings, null, MediaType.APPLICATION_JSON)).isNull();
+    }
+
+    @Test
+    void shouldWriteSameJsonAsObjectMapper() throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(greetings, GREETINGS, MediaType.APPLICATION_JSON, outputMessage);
+
+        assertThat(outputMessage.getBodyAsString()).isEqualTo(objectMapper.writeValueAsString(greetings));
+    }
+}
@@ -0,0 +1,61 @@
+package com.genome.munoz.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for the {@link FastStartSpringLiquibase} class, using an H2 in-memory database.
+ */
+class FastStartSpringLiquibaseTest {
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void setup() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:fast-start;DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    private FastStartSpringLiquibase liquibase(String contexts) throws Exception {
+        FastStartSpringLiquibase liquibase = new FastStartSpringLiquibase(new SyncTaskExecutor(), new MockEnvironment());
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:config/liquibase/master.xml");
+        liquibase.setContexts(contexts);
+        liquibase.afterPropertiesSet();
+        return liquibase;
+    }
+
+    @Test
+    void shouldSkipUpdateWhenChangelogsAreUnchanged() throws Exception {
+        assertThat(liquibase("test").isSkipped()).isFalse();
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT count(*) FROM databasechangelog_digest", Integer.class))
+            .isEqualTo(1);
+
+        assertThat(liquibase("test").isSkipped()).isTrue();
+    }
+
+    @Test
+    void shouldRunUpdateWhenContextsChange() throws Exception {
+        liquibase("test");
+
+        assertThat(liquibase("test, faker").isSkipped()).isFalse();
+        assertThat(liquibase("test, faker").isSkipped()).isTrue();
+    }
+
+    @Test
+    void shouldRunUpdateWhenDigestDoesNotMatch() throws Exception {
+        liquibase("test");
+        new JdbcTemplate(dataSource).update("UPDATE databasechangelog_digest SET digest = 'outdated'");
+
+        assertThat(liquibase("test").isSkipped()).isFalse();
+    }
+}
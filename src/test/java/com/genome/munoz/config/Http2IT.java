@@ -0,0 +1,110 @@
+package com.genome.munoz.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.genome.munoz.GenomeApp;
+import com.genome.munoz.domain.Greeting;
+import com.genome.munoz.repository.GreetingRepository;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+/**
+ * Integration tests of cleartext HTTP/2 (h2c) on the embedded Undertow server, with the JDK {@link HttpClient}.
+ * <p>
+ * The rate and concurrency limits are disabled, so that the concurrent streams measure the server rather than them.
+ */
+@SpringBootTest(
+    classes = GenomeApp.class,
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = { "server.http2.enabled=true", "application.rate-limit.enabled=false", "application.concurrency-limit.enabled=false" }
+)
+class Http2IT {
+
+    private static final int STREAMS = 200;
+
+    private final Logger log = LoggerFactory.getLogger(Http2IT.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private GreetingRepository greetingRepository;
+
+    private Greeting greeting;
+
+    private HttpClient httpClient;
+
+    @BeforeEach
+    public void setup() {
+        greeting = greetingRepository.saveAndFlush(new Greeting().greeting("Hello"));
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @AfterEach
+    public void teardown() {
+        greetingRepository.delete(greeting);
+    }
+
+    @Test
+    void upgradeToHttp2() throws Exception {
+        HttpResponse<String> response = httpClient.send(greetingRequest(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(response.body()).contains("\"greeting\":\"Hello\"");
+    }
+
+    @Test
+    void multiplexConcurrentStreamsOnOneConnection() throws Exception {
+        // The first request upgrades the connection, which the client then shares between all the streams
+        assertThat(httpClient.send(greetingRequest(), HttpResponse.BodyHandlers.discarding()).version())
+            .isEqualTo(HttpClient.Version.HTTP_2);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> latencies = new ArrayList<>();
+        for (int i = 0; i < STREAMS; i++) {
+            long sent = System.nanoTime();
+            latencies.add(
+                httpClient
+                    .sendAsync(greetingRequest(), HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> {
+                        assertThat(response.statusCode()).isEqualTo(200);
+                        assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+                        return System.nanoTime() - sent;
+                    })
+            );
+        }
+        CompletableFuture.allOf(latencies.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        long[] sorted = latencies.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        log.info(
+            "{} concurrent HTTP/2 streams in {}ms, latency p50 {}ms, p99 {}ms, max {}ms",
+            STREAMS,
+            TimeUnit.NANOSECONDS.toMillis(elapsed),
+            TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length / 2]),
+            TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length * 99 / 100]),
+            TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length - 1])
+        );
+        assertThat(sorted).hasSize(STREAMS);
+    }
+
+    private HttpRequest greetingRequest() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/greeting/" + greeting.getId())).GET().build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.genome.munoz.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unit tests for the {@link ReadWriteRoutingDataSource} and {@link ReplicaLagMonitor} classes, using two H2
+ * in-memory databases as primary and replica.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private ApplicationProperties.Datasource.Replica replicaProperties;
+
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWriteTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    public void setup() {
+        primary = h2DataSource("routing-primary");
+        replica = h2DataSource("routing-replica");
+
+        replicaProperties = new ApplicationProperties.Datasource.Replica();
+        replicaProperties.setLagQuery("SELECT lag FROM node");
+        replicaLagMonitor = new ReplicaLagMonitor(replica, replicaProperties, nanoTime::get);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+            new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor::isReplicaAvailable)
+        );
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private static DataSource h2DataSource(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("DROP TABLE IF EXISTS node");
+        template.execute("CREATE TABLE node (name VARCHAR(20), lag DOUBLE)");
+        template.update("INSERT INTO node (name, lag) VALUES (?, 0)", name);
+        return dataSource;
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private String nodeInReadOnlyTransaction() {
+        return readOnlyTransaction.execute(status -> currentNode());
+    }
+
+    private String nodeInReadWriteTransaction() {
+        return readWriteTransaction.execute(status -> currentNode());
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        replicaLagMonitor.checkLag();
+
+        assertThat(nodeInReadOnlyTransaction()).isEqualTo("routing-replica");
+        assertThat(nodeInReadWriteTransaction()).isEqualTo("routing-primary");
+        assertThat(currentNode()).isEqualTo("routing-primary");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryBeforeFirstLagCheck() {
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(nodeInReadOnlyTransaction()).isEqualTo("routing-primary");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        new JdbcTemplate(replica).update("UPDATE node SET lag = 30");
+
+        replicaLagMonitor.checkLag();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(replicaLagMonitor.getLagSeconds()).isEqualTo(30);
+        assertThat(nodeInReadOnlyTransaction()).isEqualTo("routing-primary");
+
+        new JdbcTemplate(replica).update("UPDATE node SET lag = 1");
+
+        replicaLagMonitor.checkLag();
+
+        assertThat(nodeInReadOnlyTransaction()).isEqualTo("routing-replica");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenLagChecksStop() {
+        replicaLagMonitor.checkLag();
+        nanoTime.addAndGet(replicaProperties.getLagCheckInterval().toNanos() * ReplicaLagMonitor.STALE_CHECK_INTERVALS);
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isTrue();
+
+        // No successful check for more than 3 intervals: the replica may have fallen behind since the last one
+        nanoTime.incrementAndGet();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(nodeInReadOnlyTransaction()).isEqualTo("routing-primary");
+
+        replicaLagMonitor.checkLag();
+
+        assertThat(nodeInReadOnlyTransaction()).isEqualTo("routing-replica");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenLagCheckFails() {
+        replicaLagMonitor.checkLag();
+        replicaProperties.setLagQuery("SELECT lag FROM missing_table");
+
+        replicaLagMonitor.checkLag();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(nodeInReadOnlyTransaction()).isEqualTo("routing-primary");
+    }
+
+    @Test
+    void shouldTagHikariMetersWithPoolRole() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        meterRegistry
+            .config()
+            .meterFilter(
+                DatabaseConfiguration.ReplicaConfiguration.hikariRoleMeterFilter(Map.of("Hikari", "primary", "Hikari-replica", "replica"))
+            );
+
+        meterRegistry.gauge("hikaricp.connections.active", Tags.of("pool", "Hikari"), 1);
+        meterRegistry.gauge("hikaricp.connections.active", Tags.of("pool", "Hikari-replica"), 2);
+
+        assertThat(meterRegistry.get("hikaricp.connections.active").tag("role", "primary").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("hikaricp.connections.active").tag("role", "replica").gauge().value()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,35 @@
+package com.genome.munoz.config;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate {@link StatementInspector} counting the SQL statements issued by the tests, by statement type.
+ * <p>
+ * Registered with the {@code hibernate.session_factory.statement_inspector} property of the test configuration.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final Map<String, LongAdder> COUNTS = new ConcurrentHashMap<>();
+
+    @Override
+    public String inspect(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = trimmed.indexOf(' ');
+        String type = (end < 0 ? trimmed : trimmed.substring(0, end)).toUpperCase(Locale.ROOT);
+        COUNTS.computeIfAbsent(type, key -> new LongAdder()).increment();
+        return sql;
+    }
+
+    public static long count(String type) {
+        LongAdder count = COUNTS.get(type);
+        return count == null ? 0 : count.sum();
+    }
+
+    public static void reset() {
+        COUNTS.clear();
+    }
+}
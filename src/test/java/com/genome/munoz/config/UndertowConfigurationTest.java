@@ -0,0 +1,122 @@
+package com.genome.munoz.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.UndertowWebServerFactoryCustomizer;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Unit tests for the {@link UndertowConfiguration} class, on a started Undertow server.
+ */
+class UndertowConfigurationTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ServerProperties serverProperties;
+
+    private ApplicationProperties applicationProperties;
+
+    private UndertowConfiguration undertowConfiguration;
+
+    private WebServer webServer;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        serverProperties = new ServerProperties();
+        applicationProperties = new ApplicationProperties();
+        undertowConfiguration = new UndertowConfiguration(meterRegistry);
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (webServer != null) {
+            webServer.stop();
+        }
+    }
+
+    @Test
+    void applyThreadAndBufferSettings() throws Exception {
+        serverProperties.getUndertow().getThreads().setIo(2);
+        serverProperties.getUndertow().getThreads().setWorker(6);
+        serverProperties.getUndertow().setBufferSize(DataSize.ofKilobytes(4));
+        serverProperties.getUndertow().setDirectBuffers(false);
+        applicationProperties.getUndertow().setBufferPoolMaxSize(64);
+
+        MeteredByteBufferPool byteBufferPool = start();
+
+        assertThat(get("/hello")).isEqualTo("Hello");
+        assertThat(byteBufferPool.getBufferSize()).isEqualTo(4096);
+        assertThat(byteBufferPool.isDirect()).isFalse();
+        assertThat(meterRegistry.get("undertow.buffer.pool.allocations").functionCounter().count()).isPositive();
+        assertThat(meterRegistry.get("undertow.io.threads").gauges()).extracting(Gauge::value).contains(2.0);
+        assertThat(meterRegistry.get("undertow.worker.threads.max").gauges()).extracting(Gauge::value).contains(6.0);
+        assertThat(meterRegistry.get("undertow.worker.queue.size").gauges()).isNotEmpty();
+    }
+
+    @Test
+    void keepUndertowDefaultsWhenNotConfigured() throws Exception {
+        MeteredByteBufferPool byteBufferPool = start();
+
+        assertThat(get("/hello")).isEqualTo("Hello");
+        assertThat(byteBufferPool.getBufferSize()).isEqualTo(Runtime.getRuntime().maxMemory() < 128 * 1024 * 1024 ? 1024 : 16364);
+        assertThat(meterRegistry.get("undertow.io.threads").gauges())
+            .extracting(Gauge::value)
+            .contains((double) Math.max(Runtime.getRuntime().availableProcessors(), 2));
+    }
+
+    /**
+     * Start a server with the customizers of Spring Boot and of {@link UndertowConfiguration}, serving {@code /hello}.
+     */
+    private MeteredByteBufferPool start() {
+        MeteredByteBufferPool byteBufferPool = UndertowConfiguration.undertowByteBufferPool(serverProperties, applicationProperties);
+        byteBufferPool.bindTo(meterRegistry);
+        UndertowServletWebServerFactory factory = new UndertowServletWebServerFactory(0);
+        new UndertowWebServerFactoryCustomizer(new MockEnvironment(), serverProperties).customize(factory);
+        undertowConfiguration.undertowByteBufferPoolCustomizer(byteBufferPool).customize(factory);
+        webServer =
+            factory.getWebServer(servletContext ->
+                servletContext
+                    .addServlet(
+                        "hello",
+                        new HttpServlet() {
+                            @Override
+                            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                                response.getWriter().write("Hello");
+                            }
+                        }
+                    )
+                    .addMapping("/hello")
+            );
+        webServer.start();
+        undertowConfiguration.bindWorkerMetrics();
+        return byteBufferPool;
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + webServer.getPort() + path).openConnection();
+        try (InputStream body = connection.getInputStream()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.genome.munoz.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link HikariPoolSizingService} class.
+ */
+class HikariPoolSizingServiceTest {
+
+    private static final String POOL_NAME = "Hikari-sizing";
+
+    private MeterRegistry meterRegistry;
+
+    private HikariDataSource dataSource;
+
+    private ApplicationProperties applicationProperties;
+
+    private HikariPoolSizingService hikariPoolSizingService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:pool-sizing;DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(POOL_NAME);
+        dataSource.setMaximumPoolSize(10);
+        dataSource.setMinimumIdle(10);
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+
+        applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Datasource.PoolSizing poolSizing = applicationProperties.getDatasource().getPoolSizing();
+        poolSizing.setMinimumPoolSize(4);
+        poolSizing.setMaximumPoolSize(12);
+        poolSizing.setStep(2);
+        poolSizing.setTargetAcquireTime(Duration.ofMillis(10));
+        poolSizing.setMaxUsageTime(Duration.ofMillis(100));
+
+        hikariPoolSizingService = new HikariPoolSizingService(List.of(dataSource), meterRegistry, applicationProperties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldGrowWhenThreadsAreWaiting() {
+        HikariPoolSizingService.Decision decision = hikariPoolSizingService.decide(POOL_NAME, 10, 1, 5, 10, 3);
+
+        assertThat(decision.getTo()).isEqualTo(12);
+        assertThat(decision.getReason()).isEqualTo("acquire-wait");
+    }
+
+    @Test
+    void shouldNotGrowBeyondUpperBound() {
+        assertThat(hikariPoolSizingService.decide(POOL_NAME, 12, 50, 5, 12, 0).getTo()).isEqualTo(12);
+    }
+
+    @Test
+    void shouldShrinkWhenDatabaseIsSlow() {
+        HikariPoolSizingService.Decision decision = hikariPoolSizingService.decide(POOL_NAME, 10, 50, 500, 10, 4);
+
+        assertThat(decision.getTo()).isEqualTo(8);
+        assertThat(decision.getReason()).isEqualTo("db-latency");
+        assertThat(hikariPoolSizingService.decide(POOL_NAME, 5, 50, 500, 5, 4).getTo()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldShrinkIdlePoolByOne() {
+        HikariPoolSizingService.Decision decision = hikariPoolSizingService.decide(POOL_NAME, 10, 0, 5, 2, 0);
+
+        assertThat(decision.getTo()).isEqualTo(9);
+        assertThat(decision.getReason()).isEqualTo("idle");
+    }
+
+    @Test
+    void shouldHoldSteadyPool() {
+        assertThat(hikariPoolSizingService.decide(POOL_NAME, 10, 2, 5, 8, 0).getReason()).isEqualTo("steady");
+    }
+
+    @Test
+    void shouldApplyDecisionThroughConfigMXBean() {
+        meterRegistry.timer("hikaricp.connections.acquire", "pool", POOL_NAME).record(50, TimeUnit.MILLISECONDS);
+        meterRegistry.timer("hikaricp.connections.usage", "pool", POOL_NAME).record(5, TimeUnit.MILLISECONDS);
+
+        hikariPoolSizingService.resizePools();
+
+        assertThat(dataSource.getHikariConfigMXBean().getMaximumPoolSize()).isEqualTo(12);
+        assertThat(meterRegistry.get(HikariPoolSizingService.RESIZE_METER_NAME).tag("reason", "acquire-wait").counter().count())
+            .isEqualTo(1);
+
+        // No new acquisition in this interval, and an idle pool: shrink by one, keeping minimumIdle within the new size
+        hikariPoolSizingService.resizePools();
+
+        assertThat(dataSource.getHikariConfigMXBean().getMaximumPoolSize()).isEqualTo(11);
+        assertThat(dataSource.getHikariConfigMXBean().getMinimumIdle()).isEqualTo(10);
+
+        Map<String, Object> snapshot = hikariPoolSizingService.snapshot();
+        assertThat(snapshot.get("decisions")).asInstanceOf(InstanceOfAssertFactories.LIST).hasSize(2);
+        assertThat(snapshot.get("pools")).asInstanceOf(InstanceOfAssertFactories.MAP).containsOnlyKeys(POOL_NAME);
+    }
+
+    @Test
+    void shouldRestoreMinimumIdleWhenGrowingAgain() {
+        // Slow database: shrink to 8, then 6, lowering minimumIdle with the size
+        meterRegistry.timer("hikaricp.connections.usage", "pool", POOL_NAME).record(500, TimeUnit.MILLISECONDS);
+        hikariPoolSizingService.resizePools();
+        meterRegistry.timer("hikaricp.connections.usage", "pool", POOL_NAME).record(500, TimeUnit.MILLISECONDS);
+        hikariPoolSizingService.resizePools();
+
+        assertThat(dataSource.getHikariConfigMXBean().getMaximumPoolSize()).isEqualTo(6);
+        assertThat(dataSource.getHikariConfigMXBean().getMinimumIdle()).isEqualTo(6);
+
+        // Slow acquisitions: grow back to 12 by steps of 2, raising minimumIdle up to its configured 10
+        meterRegistry.timer("hikaricp.connections.acquire", "pool", POOL_NAME).record(50, TimeUnit.MILLISECONDS);
+        hikariPoolSizingService.resizePools();
+        assertThat(dataSource.getHikariConfigMXBean().getMinimumIdle()).isEqualTo(8);
+        meterRegistry.timer("hikaricp.connections.acquire", "pool", POOL_NAME).record(50, TimeUnit.MILLISECONDS);
+        hikariPoolSizingService.resizePools();
+        meterRegistry.timer("hikaricp.connections.acquire", "pool", POOL_NAME).record(50, TimeUnit.MILLISECONDS);
+        hikariPoolSizingService.resizePools();
+
+        assertThat(dataSource.getHikariConfigMXBean().getMaximumPoolSize()).isEqualTo(12);
+        assertThat(dataSource.getHikariConfigMXBean().getMinimumIdle()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,205 @@
+package com.genome.munoz.seed;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of greetings and messages for benchmark datasets.
+ * <p>
+ * Every chunk of rows draws from its own random generator, seeded from the dataset seed and the chunk index, so the
+ * same seed and chunk size give the same rows whatever the number of threads loading them. Greetings are picked
+ * uniformly or following a Zipf law, and message words always follow a Zipf law over a small vocabulary, like
+ * natural text, which keeps the search index realistic.
+ */
+public class SeedDataGenerator {
+
+    private static final String[] VOCABULARY = {
+        "genome",
+        "sequence",
+        "read",
+        "sample",
+        "variant",
+        "gene",
+        "allele",
+        "the",
+        "of",
+        "and",
+        "chromosome",
+        "assembly",
+        "alignment",
+        "coverage",
+        "quality",
+        "pipeline",
+        "mutation",
+        "protein",
+        "expression",
+        "cell",
+        "tissue",
+        "patient",
+        "cohort",
+        "marker",
+        "locus",
+        "exon",
+        "intron",
+        "promoter",
+        "enhancer",
+        "transcript",
+        "reference",
+        "contig",
+        "scaffold",
+        "kmer",
+        "index",
+        "barcode",
+        "library",
+        "flowcell",
+        "lane",
+        "batch",
+        "run",
+        "report",
+        "analysis",
+        "cluster",
+        "phenotype",
+        "haplotype",
+        "methylation",
+        "splice",
+        "insertion",
+        "deletion",
+        "duplication",
+        "inversion",
+        "translocation",
+        "annotation",
+        "database",
+        "release",
+        "upload",
+        "download",
+        "archive",
+        "review",
+    };
+
+    /**
+     * Picks an integer in {@code [0, n)}, following a Zipf law or uniformly.
+     */
+    static final class Distribution {
+
+        private final int size;
+
+        /**
+         * Cumulative probabilities, or {@code null} for the uniform distribution.
+         */
+        private final double[] cumulative;
+
+        private Distribution(int size, double[] cumulative) {
+            this.size = size;
+            this.cumulative = cumulative;
+        }
+
+        static Distribution uniform(int size) {
+            return new Distribution(size, null);
+        }
+
+        static Distribution zipf(int size, double exponent) {
+            double[] cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 0; rank < size; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < size; rank++) {
+                cumulative[rank] /= sum;
+            }
+            return new Distribution(size, cumulative);
+        }
+
+        int next(SplittableRandom random) {
+            if (cumulative == null) {
+                return random.nextInt(size);
+            }
+            int position = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(position >= 0 ? position : -position - 1, size - 1);
+        }
+    }
+
+    /**
+     * Receives the generated messages.
+     */
+    @FunctionalInterface
+    public interface MessageSink {
+        void accept(long id, String message, Instant hireDate, long greetingId) throws Exception;
+    }
+
+    /**
+     * Receives the generated greetings.
+     */
+    @FunctionalInterface
+    public interface GreetingSink {
+        void accept(long id, String greeting) throws Exception;
+    }
+
+    private final long seed;
+
+    private final Distribution greetingDistribution;
+
+    private final Distribution wordDistribution = Distribution.zipf(VOCABULARY.length, 1.0);
+
+    private final long firstHireDate;
+
+    private final long hireDateRange;
+
+    private final int minWords;
+
+    private final int maxWords;
+
+    public SeedDataGenerator(SeedDataSettings settings) {
+        this.seed = settings.getSeed();
+        this.greetingDistribution = "zipf".equals(settings.getGreetingDistribution())
+            ? Distribution.zipf(settings.getGreetings(), settings.getZipfExponent())
+            : Distribution.uniform(settings.getGreetings());
+        this.firstHireDate = settings.getFrom().getEpochSecond();
+        this.hireDateRange = settings.getTo().getEpochSecond() - firstHireDate;
+        this.minWords = settings.getMinWords();
+        this.maxWords = settings.getMaxWords();
+    }
+
+    private SplittableRandom random(char table, long chunk) {
+        return new SplittableRandom(seed * 31 + table + chunk * 0x9e3779b97f4a7c15L);
+    }
+
+    /**
+     * Generate the greetings with the ids {@code [firstId, firstId + count)}, the chunk {@code chunk} of the dataset.
+     */
+    public void greetings(long chunk, long firstId, int count, GreetingSink sink) throws Exception {
+        SplittableRandom random = random('g', chunk);
+        StringBuilder greeting = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            greeting.setLength(0);
+            appendWords(greeting, random, 1, 3);
+            sink.accept(firstId + i, greeting.toString());
+        }
+    }
+
+    /**
+     * Generate the messages with the ids {@code [firstId, firstId + count)}, the chunk {@code chunk} of the dataset.
+     * Greeting ids are in {@code [1, greetings]}.
+     */
+    public void messages(long chunk, long firstId, int count, MessageSink sink) throws Exception {
+        SplittableRandom random = random('m', chunk);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            message.setLength(0);
+            appendWords(message, random, minWords, maxWords);
+            Instant hireDate = Instant.ofEpochSecond(firstHireDate + random.nextLong(hireDateRange));
+            sink.accept(firstId + i, message.toString(), hireDate, greetingDistribution.next(random) + 1L);
+        }
+    }
+
+    private void appendWords(StringBuilder text, SplittableRandom random, int min, int max) {
+        int words = min + random.nextInt(max - min + 1);
+        for (int word = 0; word < words; word++) {
+            if (word > 0) {
+                text.append(' ');
+            }
+            text.append(VOCABULARY[wordDistribution.next(random)]);
+        }
+    }
+}
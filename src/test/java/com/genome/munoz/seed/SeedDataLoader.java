@@ -0,0 +1,279 @@
+package com.genome.munoz.seed;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads a benchmark dataset generated by {@link SeedDataGenerator} into an existing database, whose schema is already
+ * created by Liquibase.
+ * <p>
+ * Rows are loaded in chunks of {@code seed.chunk-size}, {@code seed.threads} chunks at a time, each on its own
+ * connection and in its own transaction: with {@code COPY} on PostgreSQL, and with JDBC batches of
+ * {@code seed.batch-size} otherwise. Run it with {@code ./gradlew seedData}, for example:
+ *
+ * <pre>
+ * ./gradlew seedData -Pseed.url=jdbc:postgresql://localhost:5432/genome-bench -Pseed.messages=10000000 -Pseed.truncate=true
+ * </pre>
+ * <p>
+ * The generated ids start at 1, so the tables must be empty, or emptied first with {@code seed.truncate=true}: the
+ * loader refuses to run otherwise, before writing anything.
+ */
+public class SeedDataLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SeedDataLoader.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final List<String> DERIVED_TABLES = List.of("messages_daily_stats", "messages_archive", "messages_archive_checkpoint");
+
+    @FunctionalInterface
+    private interface ChunkLoader {
+        void load(Connection connection, long chunk, long firstId, int count) throws Exception;
+    }
+
+    private final SeedDataSettings settings;
+
+    private final SeedDataGenerator generator;
+
+    public SeedDataLoader(SeedDataSettings settings) {
+        this.settings = settings;
+        this.generator = new SeedDataGenerator(settings);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new SeedDataLoader(SeedDataSettings.fromProperties(System.getProperties())).load();
+    }
+
+    public void load() throws Exception {
+        long start = System.currentTimeMillis();
+        boolean postgres;
+        try (Connection connection = connect()) {
+            postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            if (settings.isTruncate()) {
+                truncate(connection, postgres);
+            } else if (hasRows(connection, "greeting") || hasRows(connection, "messages")) {
+                throw new IllegalStateException(
+                    "The greeting and messages tables of " +
+                    settings.getUrl() +
+                    " are not empty: set seed.truncate=true to delete their rows"
+                );
+            }
+            if (postgres && isPartitioned(connection)) {
+                createMonthlyPartitions(connection);
+            }
+            connection.commit();
+        }
+        loadChunks("greeting", settings.getGreetings(), postgres ? this::copyGreetings : this::insertGreetings);
+        loadChunks("messages", settings.getMessages(), postgres ? this::copyMessages : this::insertMessages);
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // Hibernate allocates ids by blocks of 50 below the sequence value
+            long nextValue = Math.max(settings.getGreetings(), settings.getMessages()) + 50;
+            statement.execute("alter sequence sequence_generator restart with " + nextValue);
+            if (postgres) {
+                statement.execute("analyze greeting");
+                statement.execute("analyze messages");
+            }
+            connection.commit();
+        }
+        log.info(
+            "Loaded {} greetings and {} messages (seed {}) in {} ms",
+            settings.getGreetings(),
+            settings.getMessages(),
+            settings.getSeed(),
+            System.currentTimeMillis() - start
+        );
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(settings.getUrl(), settings.getUsername(), settings.getPassword());
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    /**
+     * Empty the seeded tables, and the tables derived from the messages, if the schema has them: the statistics are
+     * backfilled by the application on its next start when empty.
+     */
+    private void truncate(Connection connection, boolean postgres) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        for (String table : DERIVED_TABLES) {
+            if (exists(connection, table)) {
+                tables.add(table);
+            }
+        }
+        tables.add("messages");
+        tables.add("greeting");
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("truncate table " + String.join(", ", tables));
+            } else {
+                for (String table : tables) {
+                    statement.execute("delete from " + table);
+                }
+            }
+        }
+    }
+
+    private static boolean hasRows(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setMaxRows(1);
+            try (ResultSet rs = statement.executeQuery("select id from " + table)) {
+                return rs.next();
+            }
+        }
+    }
+
+    private boolean exists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        try (ResultSet rs = metaData.getTables(connection.getCatalog(), null, name, null)) {
+            return rs.next();
+        }
+    }
+
+    private boolean isPartitioned(Connection connection) throws SQLException {
+        try (
+            Statement statement = connection.createStatement();
+            ResultSet rs = statement.executeQuery(
+                "select count(*) from pg_partitioned_table p join pg_class c on c.oid = p.partrelid where c.relname = 'messages'"
+            )
+        ) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+
+    /**
+     * Create the monthly partitions covering the hire dates, so that the rows do not all land in the default one.
+     */
+    private void createMonthlyPartitions(Connection connection) throws SQLException {
+        YearMonth last = YearMonth.from(settings.getTo().atOffset(ZoneOffset.UTC));
+        try (Statement statement = connection.createStatement()) {
+            for (YearMonth month = YearMonth.from(settings.getFrom().atOffset(ZoneOffset.UTC)); !month.isAfter(last); month = month.plusMonths(1)) {
+                statement.execute(
+                    "create table if not exists messages_p" +
+                    month.format(PARTITION_SUFFIX) +
+                    " partition of messages for values from ('" +
+                    month.atDay(1) +
+                    "') to ('" +
+                    month.plusMonths(1).atDay(1) +
+                    "')"
+                );
+            }
+        }
+    }
+
+    private void loadChunks(String table, long rows, ChunkLoader loader) throws Exception {
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, settings.getThreads()));
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long chunk = 0; chunk * settings.getChunkSize() < rows; chunk++) {
+                long chunkIndex = chunk;
+                long firstId = chunk * settings.getChunkSize() + 1;
+                int count = (int) Math.min(settings.getChunkSize(), rows - firstId + 1);
+                chunks.add(
+                    executor.submit(() -> {
+                        try (Connection connection = connect()) {
+                            loader.load(connection, chunkIndex, firstId, count);
+                            connection.commit();
+                        }
+                        return null;
+                    })
+                );
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Loaded {} rows into {} in {} ms", rows, table, System.currentTimeMillis() - start);
+    }
+
+    private void insertGreetings(Connection connection, long chunk, long firstId, int count) throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement("insert into greeting (id, greeting) values (?, ?)")) {
+            generator.greetings(
+                chunk,
+                firstId,
+                count,
+                (id, greeting) -> {
+                    insert.setLong(1, id);
+                    insert.setString(2, greeting);
+                    addToBatch(insert, id - firstId + 1, count);
+                }
+            );
+        }
+    }
+
+    private void insertMessages(Connection connection, long chunk, long firstId, int count) throws Exception {
+        try (
+            PreparedStatement insert = connection.prepareStatement(
+                "insert into messages (id, message, hire_date, greeting_id) values (?, ?, ?, ?)"
+            )
+        ) {
+            generator.messages(
+                chunk,
+                firstId,
+                count,
+                (id, message, hireDate, greetingId) -> {
+                    insert.setLong(1, id);
+                    insert.setString(2, message);
+                    insert.setTimestamp(3, Timestamp.from(hireDate));
+                    insert.setLong(4, greetingId);
+                    addToBatch(insert, id - firstId + 1, count);
+                }
+            );
+        }
+    }
+
+    private void addToBatch(PreparedStatement insert, long rowInChunk, int count) throws SQLException {
+        insert.addBatch();
+        if (rowInChunk % settings.getBatchSize() == 0 || rowInChunk == count) {
+            insert.executeBatch();
+        }
+    }
+
+    private void copyGreetings(Connection connection, long chunk, long firstId, int count) throws Exception {
+        StringBuilder csv = new StringBuilder(count * 32);
+        generator.greetings(chunk, firstId, count, (id, greeting) -> csv.append(id).append(',').append(quote(greeting)).append('\n'));
+        connection.unwrap(PGConnection.class).getCopyAPI().copyIn("copy greeting (id, greeting) from stdin with (format csv)", new StringReader(csv.toString()));
+    }
+
+    private void copyMessages(Connection connection, long chunk, long firstId, int count) throws Exception {
+        StringBuilder csv = new StringBuilder(count * 128);
+        generator.messages(
+            chunk,
+            firstId,
+            count,
+            (id, message, hireDate, greetingId) ->
+                csv.append(id).append(',').append(quote(message)).append(',').append(hireDate).append(',').append(greetingId).append('\n')
+        );
+        connection
+            .unwrap(PGConnection.class)
+            .getCopyAPI()
+            .copyIn("copy messages (id, message, hire_date, greeting_id) from stdin with (format csv)", new StringReader(csv.toString()));
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,115 @@
+package com.genome.munoz.seed;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Unit tests for the {@link SeedDataLoader} class, using an H2 in-memory database.
+ */
+class SeedDataLoaderTest {
+
+    private static final String URL = "jdbc:h2:mem:seed;DB_CLOSE_DELAY=-1";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL));
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE SEQUENCE sequence_generator START WITH 1050 INCREMENT BY 50");
+        jdbcTemplate.execute("CREATE TABLE greeting (id BIGINT PRIMARY KEY, greeting VARCHAR(255))");
+        jdbcTemplate.execute(
+            "CREATE TABLE messages (id BIGINT PRIMARY KEY, message VARCHAR(255), hire_date TIMESTAMP, " +
+            "greeting_id BIGINT REFERENCES greeting (id))"
+        );
+    }
+
+    private static SeedDataSettings settings(int threads) {
+        Properties properties = new Properties();
+        properties.setProperty("seed.url", URL);
+        properties.setProperty("seed.username", "");
+        properties.setProperty("seed.greetings", "50");
+        properties.setProperty("seed.messages", "2500");
+        properties.setProperty("seed.threads", String.valueOf(threads));
+        properties.setProperty("seed.chunk-size", "1000");
+        properties.setProperty("seed.batch-size", "64");
+        properties.setProperty("seed.truncate", "true");
+        return SeedDataSettings.fromProperties(properties);
+    }
+
+    private List<String> messages() {
+        return jdbcTemplate.queryForList("SELECT CONCAT(id, message, hire_date, greeting_id) FROM messages ORDER BY id", String.class);
+    }
+
+    @Test
+    void shouldLoadAllRowsInChunks() throws Exception {
+        new SeedDataLoader(settings(4)).load();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM greeting", Long.class)).isEqualTo(50);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM messages", Long.class)).isEqualTo(2500);
+        assertThat(jdbcTemplate.queryForObject("SELECT max(id) FROM messages", Long.class)).isEqualTo(2500);
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR sequence_generator", Long.class)).isEqualTo(2550);
+    }
+
+    @Test
+    void shouldBeReproducibleWhateverTheThreads() throws Exception {
+        new SeedDataLoader(settings(4)).load();
+        List<String> loadedInParallel = messages();
+
+        new SeedDataLoader(settings(1)).load();
+
+        assertThat(messages()).isEqualTo(loadedInParallel);
+    }
+
+    @Test
+    void shouldRefuseToLoadIntoNonEmptyTablesWithoutTruncate() throws Exception {
+        new SeedDataLoader(settings(2)).load();
+        Properties properties = new Properties();
+        properties.setProperty("seed.url", URL);
+        properties.setProperty("seed.username", "");
+        properties.setProperty("seed.greetings", "10");
+        properties.setProperty("seed.messages", "10");
+        SeedDataLoader loader = new SeedDataLoader(SeedDataSettings.fromProperties(properties));
+
+        assertThatThrownBy(loader::load).isInstanceOf(IllegalStateException.class).hasMessageContaining("seed.truncate=true");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM messages", Long.class)).isEqualTo(2500);
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR sequence_generator", Long.class)).isEqualTo(2550);
+    }
+
+    @Test
+    void shouldRequireUrl() {
+        assertThatThrownBy(() -> SeedDataSettings.fromProperties(new Properties()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("seed.url");
+    }
+
+    @Test
+    void shouldTruncateTablesDerivedFromMessages() throws Exception {
+        jdbcTemplate.execute("CREATE TABLE messages_daily_stats (hire_day DATE, greeting_id BIGINT, message_count BIGINT)");
+        jdbcTemplate.execute("INSERT INTO messages_daily_stats VALUES (DATE '2020-01-01', 0, 1)");
+        jdbcTemplate.execute("CREATE TABLE messages_archive (id BIGINT PRIMARY KEY, message VARCHAR(255))");
+        jdbcTemplate.execute("INSERT INTO messages_archive VALUES (1, 'archived')");
+
+        new SeedDataLoader(settings(2)).load();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM messages_daily_stats", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM messages_archive", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM messages", Long.class)).isEqualTo(2500);
+    }
+
+    @Test
+    void shouldSkewGreetingsWithZipfDistribution() throws Exception {
+        new SeedDataLoader(settings(2)).load();
+
+        long first = jdbcTemplate.queryForObject("SELECT count(*) FROM messages WHERE greeting_id = 1", Long.class);
+        long last = jdbcTemplate.queryForObject("SELECT count(*) FROM messages WHERE greeting_id = 50", Long.class);
+        assertThat(first).isGreaterThan(10 * last);
+    }
+}
@@ -0,0 +1,139 @@
+package com.genome.munoz.seed;
+
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * Settings of a benchmark dataset, read from the {@code seed.*} system properties.
+ * <p>
+ * {@code seed.url} is required, so that the application database is never seeded by default, and the existing rows
+ * are only deleted with {@code seed.truncate=true}.
+ */
+public class SeedDataSettings {
+
+    private String url;
+
+    private String username = "genome";
+
+    private String password = "";
+
+    private int greetings = 1000;
+
+    private long messages = 10_000_000;
+
+    private long seed = 42;
+
+    private String greetingDistribution = "zipf";
+
+    private double zipfExponent = 1.1;
+
+    private Instant from = Instant.parse("2020-01-01T00:00:00Z");
+
+    private Instant to = Instant.parse("2026-01-01T00:00:00Z");
+
+    private int minWords = 3;
+
+    private int maxWords = 12;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private int chunkSize = 100_000;
+
+    private int batchSize = 1000;
+
+    private boolean truncate = false;
+
+    public static SeedDataSettings fromProperties(Properties properties) {
+        SeedDataSettings settings = new SeedDataSettings();
+        settings.url = properties.getProperty("seed.url");
+        settings.username = properties.getProperty("seed.username", settings.username);
+        settings.password = properties.getProperty("seed.password", settings.password);
+        settings.greetings = Integer.parseInt(properties.getProperty("seed.greetings", String.valueOf(settings.greetings)));
+        settings.messages = Long.parseLong(properties.getProperty("seed.messages", String.valueOf(settings.messages)));
+        settings.seed = Long.parseLong(properties.getProperty("seed.seed", String.valueOf(settings.seed)));
+        settings.greetingDistribution = properties.getProperty("seed.greeting-distribution", settings.greetingDistribution);
+        settings.zipfExponent = Double.parseDouble(properties.getProperty("seed.zipf-exponent", String.valueOf(settings.zipfExponent)));
+        settings.from = Instant.parse(properties.getProperty("seed.from", settings.from.toString()));
+        settings.to = Instant.parse(properties.getProperty("seed.to", settings.to.toString()));
+        settings.minWords = Integer.parseInt(properties.getProperty("seed.min-words", String.valueOf(settings.minWords)));
+        settings.maxWords = Integer.parseInt(properties.getProperty("seed.max-words", String.valueOf(settings.maxWords)));
+        settings.threads = Integer.parseInt(properties.getProperty("seed.threads", String.valueOf(settings.threads)));
+        settings.chunkSize = Integer.parseInt(properties.getProperty("seed.chunk-size", String.valueOf(settings.chunkSize)));
+        settings.batchSize = Integer.parseInt(properties.getProperty("seed.batch-size", String.valueOf(settings.batchSize)));
+        settings.truncate = Boolean.parseBoolean(properties.getProperty("seed.truncate", String.valueOf(settings.truncate)));
+        if (settings.url == null || settings.url.isBlank()) {
+            throw new IllegalArgumentException("Invalid seed settings: seed.url is required");
+        }
+        if (settings.greetings < 1 || settings.messages < 0 || !settings.from.isBefore(settings.to)) {
+            throw new IllegalArgumentException("Invalid seed settings: at least one greeting and a non-empty hire date range are needed");
+        }
+        if (settings.minWords < 1 || settings.maxWords < settings.minWords) {
+            throw new IllegalArgumentException("Invalid seed settings: min-words must be positive and not above max-words");
+        }
+        return settings;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getGreetings() {
+        return greetings;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getGreetingDistribution() {
+        return greetingDistribution;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public int getMinWords() {
+        return minWords;
+    }
+
+    public int getMaxWords() {
+        return maxWords;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isTruncate() {
+        return truncate;
+    }
+}
@@ -0,0 +1,105 @@
+package com.genome.munoz.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.genome.munoz.IntegrationTest;
+import com.genome.munoz.domain.Messages;
+import com.genome.munoz.repository.MessagesArchiveRepository;
+import com.genome.munoz.repository.MessagesRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link MessagesArchiveService}, archiving by batches of 2 messages.
+ */
+@IntegrationTest
+class MessagesArchiveServiceIT {
+
+    // Hire dates no other test uses
+    private static final Instant OLD_HIRE_DATE = Instant.parse("1900-01-01T00:00:00Z");
+
+    private static final Instant CUTOFF = Instant.parse("1901-01-01T00:00:00Z");
+
+    @Autowired
+    private MessagesRepository messagesRepository;
+
+    @Autowired
+    private MessagesArchiveRepository messagesArchiveRepository;
+
+    @Autowired
+    private MessagesArchiveService messagesArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<Messages> old;
+
+    private Messages recent;
+
+    @BeforeEach
+    public void initTest() {
+        old = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            old.add(messagesRepository.saveAndFlush(new Messages().message("old " + i).hireDate(OLD_HIRE_DATE.plus(i, ChronoUnit.DAYS))));
+        }
+        recent = messagesRepository.saveAndFlush(new Messages().message("recent").hireDate(CUTOFF));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        messagesRepository.deleteAll(old);
+        messagesRepository.delete(recent);
+        update("DELETE FROM messages_archive");
+        messagesArchiveRepository.clearCheckpoint();
+    }
+
+    @Test
+    void archiveOldMessages() {
+        assertThat(messagesArchiveService.archive(CUTOFF)).isEqualTo(5);
+
+        for (Messages messages : old) {
+            assertThat(messagesRepository.existsById(messages.getId())).isFalse();
+            assertThat(messagesArchiveRepository.findById(messages.getId()))
+                .hasValueSatisfying(archived -> {
+                    assertThat(archived.getMessage()).isEqualTo(messages.getMessage());
+                    assertThat(archived.getHireDate()).isEqualTo(messages.getHireDate());
+                });
+        }
+        assertThat(messagesRepository.existsById(recent.getId())).isTrue();
+        assertThat(messagesArchiveRepository.findById(recent.getId())).isEmpty();
+        assertThat(messagesArchiveRepository.findCheckpoint()).isEmpty();
+    }
+
+    @Test
+    void resumeFromCheckpoint() {
+        // A previous run stopped after the second message
+        messagesArchiveRepository.saveCheckpoint(new MessagesArchiveRepository.Position(old.get(1).getHireDate(), old.get(1).getId()));
+
+        assertThat(messagesArchiveService.archive(CUTOFF)).isEqualTo(3);
+        assertThat(messagesRepository.existsById(old.get(0).getId())).isTrue();
+        assertThat(messagesRepository.existsById(old.get(1).getId())).isTrue();
+        assertThat(messagesArchiveRepository.findCheckpoint()).isEmpty();
+
+        // The next run starts over from the oldest messages
+        assertThat(messagesArchiveService.archive(CUTOFF)).isEqualTo(2);
+        assertThat(messagesRepository.existsById(old.get(0).getId())).isFalse();
+    }
+
+    /**
+     * Run the statement in its own transaction, as the test connections do not auto-commit.
+     */
+    private void update(String sql, Object... args) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql, args));
+    }
+}
@@ -0,0 +1,93 @@
+package com.genome.munoz.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.genome.munoz.repository.MessagesPartitionRepository;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Unit tests for the {@link MessagesPartitionService} class.
+ */
+class MessagesPartitionServiceTest {
+
+    private static final YearMonth CURRENT_MONTH = YearMonth.of(2026, 10);
+
+    private MessagesPartitionRepository messagesPartitionRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private MessagesPartitionService messagesPartitionService;
+
+    @BeforeEach
+    public void setup() {
+        messagesPartitionRepository = mock(MessagesPartitionRepository.class);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMessages().getPartitioning().setPremakeMonths(2);
+        messagesPartitionService = new MessagesPartitionService(messagesPartitionRepository, mock(MessagesStatsService.class), applicationProperties);
+    }
+
+    @Test
+    void shouldDoNothingWhenTableIsNotPartitioned() {
+        when(messagesPartitionRepository.isPartitioned()).thenReturn(false);
+
+        messagesPartitionService.maintainPartitions();
+
+        verify(messagesPartitionRepository, never()).createMonthlyPartition(any());
+    }
+
+    @Test
+    void shouldCreatePartitionsAhead() {
+        messagesPartitionService.maintainPartitions(CURRENT_MONTH);
+
+        verify(messagesPartitionRepository).createMonthlyPartition(YearMonth.of(2026, 10));
+        verify(messagesPartitionRepository).createMonthlyPartition(YearMonth.of(2026, 11));
+        verify(messagesPartitionRepository).createMonthlyPartition(YearMonth.of(2026, 12));
+        verify(messagesPartitionRepository, never()).findMonthlyPartitions();
+    }
+
+    @Test
+    void shouldKeepCreatingPartitionsWhenOneFails() {
+        doThrow(new DataIntegrityViolationException("default partition"))
+            .when(messagesPartitionRepository)
+            .createMonthlyPartition(CURRENT_MONTH);
+
+        messagesPartitionService.maintainPartitions(CURRENT_MONTH);
+
+        verify(messagesPartitionRepository).createMonthlyPartition(YearMonth.of(2026, 12));
+    }
+
+    @Test
+    void shouldDetachExpiredPartitions() {
+        applicationProperties.getMessages().getPartitioning().setRetentionMonths(6);
+        when(messagesPartitionRepository.findMonthlyPartitions())
+            .thenReturn(List.of(YearMonth.of(2026, 2), YearMonth.of(2026, 3), YearMonth.of(2026, 4), CURRENT_MONTH));
+
+        messagesPartitionService.maintainPartitions(CURRENT_MONTH);
+
+        verify(messagesPartitionRepository).detachMonthlyPartition(YearMonth.of(2026, 2));
+        verify(messagesPartitionRepository).detachMonthlyPartition(YearMonth.of(2026, 3));
+        verify(messagesPartitionRepository, never()).detachMonthlyPartition(YearMonth.of(2026, 4));
+        verify(messagesPartitionRepository, never()).dropMonthlyPartition(any());
+    }
+
+    @Test
+    void shouldDropExpiredPartitions() {
+        applicationProperties.getMessages().getPartitioning().setRetentionMonths(6);
+        applicationProperties
+            .getMessages()
+            .getPartitioning()
+            .setRetentionAction(ApplicationProperties.Messages.Partitioning.RetentionAction.DROP);
+        when(messagesPartitionRepository.findMonthlyPartitions()).thenReturn(List.of(YearMonth.of(2026, 3), CURRENT_MONTH));
+
+        messagesPartitionService.maintainPartitions(CURRENT_MONTH);
+
+        verify(messagesPartitionRepository).dropMonthlyPartition(YearMonth.of(2026, 3));
+        verify(messagesPartitionRepository, never()).detachMonthlyPartition(any());
+    }
+}
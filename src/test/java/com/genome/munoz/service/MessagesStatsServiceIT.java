@@ -0,0 +1,141 @@
+package com.genome.munoz.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.genome.munoz.IntegrationTest;
+import com.genome.munoz.domain.Greeting;
+import com.genome.munoz.domain.Messages;
+import com.genome.munoz.repository.GreetingRepository;
+import com.genome.munoz.repository.MessagesArchiveRepository;
+import com.genome.munoz.repository.MessagesRepository;
+import com.genome.munoz.service.dto.MessagesStatsDTO;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@link MessagesStatsService}.
+ */
+@IntegrationTest
+class MessagesStatsServiceIT {
+
+    // Hire dates no other test uses
+    private static final LocalDate FIRST_DAY = LocalDate.of(1800, 1, 1);
+
+    private static final LocalDate SECOND_DAY = LocalDate.of(1800, 1, 2);
+
+    private static final LocalDate END_DAY = LocalDate.of(1801, 1, 1);
+
+    @Autowired
+    private MessagesRepository messagesRepository;
+
+    @Autowired
+    private GreetingRepository greetingRepository;
+
+    @Autowired
+    private MessagesArchiveRepository messagesArchiveRepository;
+
+    @Autowired
+    private MessagesStatsService messagesStatsService;
+
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Greeting greeting;
+
+    private List<Messages> messages;
+
+    @BeforeEach
+    public void initTest() {
+        greeting = greetingRepository.saveAndFlush(new Greeting().greeting("stats"));
+        messages = new ArrayList<>();
+        messages.add(messagesRepository.saveAndFlush(hiredOn(FIRST_DAY, 8).greeting(greeting)));
+        messages.add(messagesRepository.saveAndFlush(hiredOn(FIRST_DAY, 20).greeting(greeting)));
+        messages.add(messagesRepository.saveAndFlush(hiredOn(FIRST_DAY, 23)));
+        messages.add(messagesRepository.saveAndFlush(hiredOn(SECOND_DAY, 0).greeting(greeting)));
+        messagesStatsService.refresh();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        update("DELETE FROM messages WHERE message = 'stats'");
+        update("DELETE FROM messages_archive WHERE message = 'stats'");
+        greetingRepository.deleteById(greeting.getId());
+        update("DELETE FROM messages_daily_stats WHERE hire_day < ?", END_DAY);
+    }
+
+    @Test
+    void refreshDaysOfWrittenMessages() {
+        assertThat(counts())
+            .containsExactly(count(FIRST_DAY, null, 1), count(FIRST_DAY, greeting.getId(), 2), count(SECOND_DAY, greeting.getId(), 1));
+
+        Messages moved = messages.get(0);
+        moved.setHireDate(SECOND_DAY.atTime(12, 0).toInstant(ZoneOffset.UTC));
+        messagesRepository.saveAndFlush(moved);
+        messagesRepository.delete(messages.get(2));
+        messagesStatsService.refresh();
+
+        assertThat(counts()).containsExactly(count(FIRST_DAY, greeting.getId(), 1), count(SECOND_DAY, greeting.getId(), 2));
+        assertThat(messagesStatsService.findDailyCounts(SECOND_DAY, END_DAY, greeting.getId()))
+            .containsExactly(count(SECOND_DAY, greeting.getId(), 2));
+    }
+
+    @Test
+    void refreshDaysOfBulkDeletedMessages() {
+        bulkDeleteService.deleteMessages(List.of(messages.get(0).getId(), messages.get(3).getId()));
+        messagesStatsService.refresh();
+
+        assertThat(counts()).containsExactly(count(FIRST_DAY, null, 1), count(FIRST_DAY, greeting.getId(), 1));
+    }
+
+    @Test
+    void backfillAllDays() {
+        Instant cutoff = END_DAY.atStartOfDay(ZoneOffset.UTC).toInstant();
+        messagesArchiveRepository.moveToArchive(cutoff, List.of(messages.get(3).getId()), Instant.now());
+        update("DELETE FROM messages_daily_stats WHERE hire_day < ?", END_DAY);
+        update("INSERT INTO messages_daily_stats (hire_day, greeting_id, message_count) VALUES (?, 0, 5)", LocalDate.of(1800, 6, 1));
+
+        messagesStatsService.backfill();
+
+        // The archived message is still counted, and the day without messages is cleared
+        assertThat(counts())
+            .containsExactly(count(FIRST_DAY, null, 1), count(FIRST_DAY, greeting.getId(), 2), count(SECOND_DAY, greeting.getId(), 1));
+    }
+
+    private List<MessagesStatsDTO> counts() {
+        return messagesStatsService.findDailyCounts(FIRST_DAY, END_DAY, null);
+    }
+
+    private static Messages hiredOn(LocalDate day, int hour) {
+        return new Messages().message("stats").hireDate(day.atTime(hour, 0).toInstant(ZoneOffset.UTC));
+    }
+
+    private static MessagesStatsDTO count(LocalDate day, Long greetingId, long count) {
+        MessagesStatsDTO dto = new MessagesStatsDTO();
+        dto.setDay(day);
+        dto.setGreetingId(greetingId);
+        dto.setCount(count);
+        return dto;
+    }
+
+    /**
+     * Run the statement in its own transaction, as the test connections do not auto-commit.
+     */
+    private void update(String sql, Object... args) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql, args));
+    }
+}
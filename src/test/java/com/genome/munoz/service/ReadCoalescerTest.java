@@ -0,0 +1,150 @@
+package com.genome.munoz.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link ReadCoalescer} class.
+ */
+class ReadCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private MeterRegistry meterRegistry;
+
+    private ReadCoalescer readCoalescer;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        readCoalescer = new ReadCoalescer(meterRegistry, Duration.ofSeconds(5));
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentReadsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = callConcurrently(() -> {
+            loads.incrementAndGet();
+            await(release);
+            return "Hello";
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Hello");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(calls("loaded")).isEqualTo(1);
+        assertThat(calls("shared")).isEqualTo(CALLERS - 1);
+
+        // The next read loads again
+        assertThat(readCoalescer.load("greeting", 1L, () -> "Hi")).isEqualTo("Hi");
+        assertThat(meterRegistry.get(ReadCoalescer.IN_FLIGHT_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void concurrentReadsShareTheFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = callConcurrently(() -> {
+            await(release);
+            throw new IllegalStateException("Database down");
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(readCoalescer.load("greeting", 1L, () -> "Hello")).isEqualTo("Hello");
+    }
+
+    @Test
+    void stalledReadIsLoadedAgain() throws Exception {
+        readCoalescer = new ReadCoalescer(meterRegistry, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> stalled = executor.submit(() ->
+            readCoalescer.load(
+                "greeting",
+                1L,
+                () -> {
+                    await(release);
+                    return "Stalled";
+                }
+            )
+        );
+        while (calls("loaded") == 0) {
+            Thread.sleep(10);
+        }
+
+        assertThat(readCoalescer.load("greeting", 1L, () -> "Hello")).isEqualTo("Hello");
+        assertThat(meterRegistry.get(ReadCoalescer.TIMEOUTS_METER_NAME).tags("read", "greeting").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(stalled.get(5, TimeUnit.SECONDS)).isEqualTo("Stalled");
+    }
+
+    @Test
+    void readsOfOtherKeysAreNotShared() {
+        assertThat(readCoalescer.load("greeting", 1L, () -> readCoalescer.load("greeting", 2L, () -> "nested"))).isEqualTo("nested");
+        assertThat(readCoalescer.load("messages", 1L, () -> "messages")).isEqualTo("messages");
+        assertThat(calls("shared")).isZero();
+    }
+
+    /**
+     * Reads the greeting 1 from {@link #CALLERS} threads, returning once all but the loading one wait for it.
+     */
+    private List<Future<String>> callConcurrently(Supplier<String> loader) throws InterruptedException {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> readCoalescer.load("greeting", 1L, loader)));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (calls("loaded") + calls("shared") < CALLERS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return results;
+    }
+
+    private double calls(String result) {
+        return meterRegistry
+            .find(ReadCoalescer.CALLS_METER_NAME)
+            .tags("read", "greeting", "result", result)
+            .counters()
+            .stream()
+            .mapToDouble(Counter::count)
+            .sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.genome.munoz.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link MessagesSearchIndex} class.
+ */
+class MessagesSearchIndexTest {
+
+    private MessagesSearchIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new MessagesSearchIndex();
+        index.put(1, "Hello genome world");
+        index.put(2, "Genomes are sequenced");
+        index.put(3, "Hello, sequencing!");
+    }
+
+    @Test
+    void shouldMatchAllWordsByPrefix() {
+        assertThat(index.search("genome", 10).getIds()).containsExactly(2, 1);
+        assertThat(index.search("HELLO seq", 10).getIds()).containsExactly(3);
+        assertThat(index.search("hello missing", 10).getTotal()).isZero();
+        assertThat(index.search("  ", 10).getTotal()).isZero();
+    }
+
+    @Test
+    void shouldLimitHitsButCountThemAll() {
+        MessagesSearchIndex.Hits hits = index.search("he", 1);
+
+        assertThat(hits.getIds()).containsExactly(3);
+        assertThat(hits.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReplaceUpdatedAndDropRemovedMessages() {
+        index.put(1, "Goodbye");
+        index.remove(3);
+
+        assertThat(index.search("hello", 10).getTotal()).isZero();
+        assertThat(index.search("good", 10).getIds()).containsExactly(1);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCompactDeletedMessages() {
+        for (int round = 0; round < 5; round++) {
+            for (long id = 10; id < 1010; id++) {
+                index.put(id, "message " + round);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(1003);
+        assertThat(index.search("message 4", 2000).getTotal()).isEqualTo(1000);
+        assertThat(index.search("message 3", 2000).getTotal()).isZero();
+        assertThat(index.search("genome", 10).getIds()).containsExactly(2, 1);
+    }
+
+    @Test
+    void shouldMatchLongWordsWhole() {
+        index.put(4, "deoxyribonucleic acid");
+
+        assertThat(index.search("deoxyribonucleic", 10).getIds()).containsExactly(4);
+        assertThat(index.search("deoxyribonuclei", 10).getIds()).containsExactly(4);
+        assertThat(index.search("deoxyribonucleicacid", 10).getTotal()).isZero();
+    }
+
+    @Test
+    void shouldMergePartsInOrder() {
+        MessagesSearchIndex other = new MessagesSearchIndex();
+        other.put(4, "Hello again");
+
+        MessagesSearchIndex merged = MessagesSearchIndex.merge(List.of(index, other));
+
+        assertThat(merged.search("hello", 10).getIds()).containsExactly(4, 3, 1);
+        assertThat(merged.maxId()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldRestoreSnapshot() throws Exception {
+        index.remove(2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+
+        MessagesSearchIndex restored = MessagesSearchIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(restored.size()).isEqualTo(2);
+        assertThat(restored.search("hello", 10).getIds()).containsExactly(3, 1);
+        assertThat(restored.search("genomes", 10).getTotal()).isZero();
+        restored.put(2, "Genomes again");
+        assertThat(restored.search("genome", 10).getIds()).containsExactly(2, 1);
+    }
+
+    @Test
+    void shouldRestoreSnapshotOfUpdatedMessages() throws Exception {
+        index.put(1, "Goodbye genome");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+
+        MessagesSearchIndex restored = MessagesSearchIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(restored.size()).isEqualTo(3);
+        assertThat(restored.search("world", 10).getTotal()).isZero();
+        assertThat(restored.search("goodbye", 10).getIds()).containsExactly(1);
+        assertThat(restored.search("genome", 10).getIds()).containsExactly(1, 2);
+        restored.put(1, "Farewell");
+        assertThat(restored.search("goodbye", 10).getTotal()).isZero();
+        assertThat(restored.search("farewell", 10).getIds()).containsExactly(1);
+        assertThat(restored.size()).isEqualTo(3);
+    }
+}
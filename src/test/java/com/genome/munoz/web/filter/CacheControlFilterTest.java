@@ -0,0 +1,91 @@
+package com.genome.munoz.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.genome.munoz.config.ApplicationProperties;
+import java.time.Duration;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the {@link CacheControlFilter} class, with the default policies.
+ */
+class CacheControlFilterTest {
+
+    private CacheControlFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        filter = new CacheControlFilter(new ApplicationProperties.HttpCache(), Duration.ofDays(1461));
+    }
+
+    @Test
+    void cacheStaticAssetsAsImmutable() {
+        assertThat(filter.cacheControl(new MockHttpServletRequest("GET", "/content/main.css"))).isEqualTo("max-age=126230400, immutable");
+        assertThat(filter.cacheControl(new MockHttpServletRequest("GET", "/index.html"))).isEqualTo("no-cache");
+    }
+
+    @Test
+    void cacheSelectedApiReadsBriefly() {
+        assertThat(filter.cacheControl(new MockHttpServletRequest("GET", "/api/greeting/1")))
+            .isEqualTo("max-age=10, stale-while-revalidate=60");
+        assertThat(filter.cacheControl(new MockHttpServletRequest("HEAD", "/api/greetings")))
+            .isEqualTo("max-age=10, stale-while-revalidate=60");
+        // Other reads keep the header of the handler, or the defaults of Spring Security
+        assertThat(filter.cacheControl(new MockHttpServletRequest("GET", "/api/messages"))).isNull();
+    }
+
+    @Test
+    void cacheAuthenticatedReadsInBrowserOnly() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/greetings");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+
+        assertThat(filter.cacheControl(request)).isEqualTo("max-age=10, private, stale-while-revalidate=60");
+    }
+
+    @Test
+    void neverStoreUnsafeApiRequests() {
+        assertThat(filter.cacheControl(new MockHttpServletRequest("POST", "/api/greeting"))).isEqualTo("no-store");
+        assertThat(filter.cacheControl(new MockHttpServletRequest("DELETE", "/api/greeting/1"))).isEqualTo("no-store");
+        assertThat(filter.cacheControl(new MockHttpServletRequest("POST", "/management/loggers/ROOT"))).isNull();
+    }
+
+    @Test
+    void varyCacheableApiResponsesByAccept() throws Exception {
+        MockHttpServletResponse api = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/greetings"), api, new MockFilterChain());
+        MockHttpServletResponse asset = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/content/main.css"), asset, new MockFilterChain());
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/greeting"), write, new MockFilterChain());
+
+        assertThat(api.getHeaders(HttpHeaders.VARY)).containsExactly(HttpHeaders.ACCEPT);
+        assertThat(asset.getHeaders(HttpHeaders.VARY)).isEmpty();
+        assertThat(write.getHeaders(HttpHeaders.VARY)).isEmpty();
+    }
+
+    @Test
+    void neverStoreErrors() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(
+            new MockHttpServletRequest("GET", "/api/greeting/1"),
+            response,
+            new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest request, ServletResponse response) {
+                    ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+                }
+            }
+        );
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-store");
+    }
+}
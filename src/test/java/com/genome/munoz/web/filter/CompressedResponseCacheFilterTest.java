@@ -0,0 +1,154 @@
+package com.genome.munoz.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.genome.munoz.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the {@link CompressedResponseCacheFilter} class.
+ */
+class CompressedResponseCacheFilterTest {
+
+    private static final String BODY = "[" + "{\"id\":1,\"greeting\":\"Hello\"},".repeat(100) + "{}]";
+
+    private MeterRegistry meterRegistry;
+
+    private CompressedResponseCacheFilter filter;
+
+    private int handled;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new CompressedResponseCacheFilter(meterRegistry, new ApplicationProperties.ResponseCache());
+    }
+
+    @Test
+    void serveCompressedBodyWhileEtagIsUnchanged() throws Exception {
+        MockHttpServletResponse first = get("/api/greetings", "\"1\"", BODY);
+        MockHttpServletResponse second = get("/api/greetings", "\"1\"", BODY);
+
+        assertThat(first.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(first.getHeader(HttpHeaders.ETAG)).isEqualTo("\"1-gzip\"");
+        assertThat(first.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gunzip(first.getContentAsByteArray())).isEqualTo(BODY);
+        assertThat(first.getContentLength()).isEqualTo(first.getContentAsByteArray().length);
+        assertThat(second.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(meterRegistry.get(CompressedResponseCacheFilter.SAVED_METER_NAME).counter().count()).isPositive();
+    }
+
+    @Test
+    void compressAgainWhenEtagChanges() throws Exception {
+        get("/api/greetings", "\"1\"", BODY);
+        MockHttpServletResponse changed = get("/api/greetings", "\"2\"", BODY.replace("Hello", "Hi"));
+
+        assertThat(gunzip(changed.getContentAsByteArray())).isEqualTo(BODY.replace("Hello", "Hi"));
+        assertThat(requests("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void validateGzipEtagAsTheIdentityOne() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/greetings");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"0\", \"1-gzip\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(
+            request,
+            response,
+            new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest request, ServletResponse response) {
+                    assertThat(((HttpServletRequest) request).getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo("\"0\", \"1\"");
+                    HttpServletResponse httpResponse = (HttpServletResponse) response;
+                    httpResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    httpResponse.setHeader(HttpHeaders.ETAG, "\"1\"");
+                }
+            }
+        );
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"1-gzip\"");
+    }
+
+    @Test
+    void clearOnWrites() throws Exception {
+        get("/api/greetings", "\"1\"", BODY);
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/greeting"), new MockHttpServletResponse(), new MockFilterChain());
+        get("/api/greetings", "\"1\"", BODY);
+
+        assertThat(requests("miss")).isEqualTo(2);
+        assertThat(meterRegistry.get(CompressedResponseCacheFilter.SIZE_METER_NAME).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void passThroughOtherResponses() throws Exception {
+        // Without ETag, too small, or on another path
+        assertThat(get("/api/greetings", null, BODY).getContentAsString()).isEqualTo(BODY);
+        assertThat(get("/api/greetings", "\"1\"", "[]").getContentAsString()).isEqualTo("[]");
+        assertThat(get("/api/messages", "\"1\"", BODY).getContentAsString()).isEqualTo(BODY);
+        assertThat(handled).isEqualTo(3);
+        assertThat(requests("miss")).isZero();
+    }
+
+    @Test
+    void parseAcceptEncoding() {
+        assertThat(CompressedResponseCacheFilter.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(CompressedResponseCacheFilter.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(CompressedResponseCacheFilter.acceptsGzip("*")).isTrue();
+        assertThat(CompressedResponseCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CompressedResponseCacheFilter.acceptsGzip("identity")).isFalse();
+        assertThat(CompressedResponseCacheFilter.acceptsGzip(null)).isFalse();
+    }
+
+    private MockHttpServletResponse get(String path, String etag, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(
+            request,
+            response,
+            new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                    handled++;
+                    HttpServletResponse httpResponse = (HttpServletResponse) response;
+                    httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                    if (etag != null) {
+                        httpResponse.setHeader(HttpHeaders.ETAG, etag);
+                    }
+                    httpResponse.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        );
+        return response;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get(CompressedResponseCacheFilter.REQUESTS_METER_NAME).tag("result", result).counter().count();
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
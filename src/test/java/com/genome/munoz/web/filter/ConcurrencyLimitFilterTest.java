@@ -0,0 +1,126 @@
+package com.genome.munoz.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.genome.munoz.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the {@link ConcurrencyLimitFilter} class.
+ */
+class ConcurrencyLimitFilterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties.ConcurrencyLimit properties;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties.ConcurrencyLimit();
+    }
+
+    @Test
+    void rejectRequestsBeyondLimit() throws Exception {
+        properties.getLimits().get(0).setInitialLimit(1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, properties);
+
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+        MockHttpServletResponse management = new MockHttpServletResponse();
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(
+            new MockHttpServletRequest("GET", "/api/greetings"),
+            outer,
+            new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+                    // Sent while the outer request is in flight
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/greetings"), nested, new MockFilterChain());
+                    filter.doFilter(new MockHttpServletRequest("GET", "/management/info"), management, new MockFilterChain());
+                }
+            }
+        );
+
+        assertThat(outer.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(nested.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(nested.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(management.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.REJECTED_METER_NAME).tag("limit", "api").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.IN_FLIGHT_METER_NAME).tag("limit", "api").gauge().value()).isZero();
+
+        // The request in flight is done
+        MockHttpServletResponse next = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/greetings"), next, new MockFilterChain());
+        assertThat(next.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void neverRejectExcludedPaths() throws Exception {
+        properties.getLimits().get(1).setInitialLimit(0);
+        properties.getLimits().get(1).setMinLimit(0);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, properties);
+
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/management/health/liveness"), health, new MockFilterChain());
+        MockHttpServletResponse info = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/management/info"), info, new MockFilterChain());
+
+        assertThat(health.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(info.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void growWhileLatencyIsSteadyAndShrinkWhenItGrows() {
+        ConcurrencyLimitFilter.GradientLimit limit = new ConcurrencyLimitFilter.GradientLimit(properties.getLimits().get(0), meterRegistry);
+
+        saturate(limit, 10, 50);
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        // Ten times slower: requests queue
+        saturate(limit, 100, 1);
+        assertThat(limit.getLimit()).isLessThan(grown).isGreaterThanOrEqualTo(4);
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.LIMIT_METER_NAME).tag("limit", "api").gauge().value())
+            .isEqualTo(limit.getLimit());
+    }
+
+    @Test
+    void keepLimitWhileFewRequestsAreInFlight() {
+        ConcurrencyLimitFilter.GradientLimit limit = new ConcurrencyLimitFilter.GradientLimit(properties.getLimits().get(0), meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    /**
+     * Fills the limit with requests taking {@code rttMillis}, {@code rounds} times.
+     */
+    private static void saturate(ConcurrencyLimitFilter.GradientLimit limit, long rttMillis, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(TimeUnit.MILLISECONDS.toNanos(rttMillis));
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.genome.munoz.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.genome.munoz.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Unit tests for the {@link RateLimitFilter} class.
+ */
+class RateLimitFilterTest {
+
+    private MockClock clock;
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties.RateLimit properties;
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        clock = new MockClock();
+        meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        properties = new ApplicationProperties.RateLimit();
+        ApplicationProperties.RateLimit.Limit admin = properties.getLimits().get(0);
+        admin.setCapacity(5);
+        admin.setRefillTokens(5);
+        ApplicationProperties.RateLimit.Limit api = properties.getLimits().get(1);
+        api.setCapacity(2);
+        api.setRefillTokens(1);
+        filter = new RateLimitFilter(meterRegistry, properties);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    public void teardown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void throttleClientBeyondCapacity() throws Exception {
+        MockHttpServletResponse first = get("/api/greetings", "10.0.0.1");
+        MockHttpServletResponse second = get("/api/greetings", "10.0.0.1");
+        MockHttpServletResponse throttled = get("/api/greetings", "10.0.0.1");
+
+        assertThat(first.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(first.getHeader(RateLimitFilter.RATE_LIMIT_LIMIT)).isEqualTo("2");
+        assertThat(first.getHeader(RateLimitFilter.RATE_LIMIT_REMAINING)).isEqualTo("1");
+        assertThat(first.getHeader(RateLimitFilter.RATE_LIMIT_RESET)).isEqualTo("1");
+        assertThat(second.getHeader(RateLimitFilter.RATE_LIMIT_REMAINING)).isEqualTo("0");
+        assertThat(second.getHeader(RateLimitFilter.RATE_LIMIT_RESET)).isEqualTo("2");
+        assertThat(throttled.getStatus()).isEqualTo(429);
+        assertThat(throttled.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(meterRegistry.get(RateLimitFilter.THROTTLED_METER_NAME).tag("limit", "api").counter().count()).isEqualTo(1);
+
+        // Another client has its own bucket
+        assertThat(get("/api/greetings", "10.0.0.2").getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void refillOverTime() throws Exception {
+        get("/api/greetings", "10.0.0.1");
+        get("/api/greetings", "10.0.0.1");
+        clock.add(Duration.ofSeconds(1));
+
+        assertThat(get("/api/greetings", "10.0.0.1").getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(get("/api/greetings", "10.0.0.1").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void limitAuthenticatedClientsByLoginAndAuthority() throws Exception {
+        authenticate("user", "ROLE_USER");
+        get("/api/greetings", "10.0.0.1");
+        get("/api/greetings", "10.0.0.2");
+        assertThat(get("/api/greetings", "10.0.0.3").getStatus()).isEqualTo(429);
+
+        authenticate("admin", "ROLE_ADMIN");
+        MockHttpServletResponse response = get("/api/greetings", "10.0.0.1");
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(response.getHeader(RateLimitFilter.RATE_LIMIT_LIMIT)).isEqualTo("5");
+    }
+
+    @Test
+    void evictFullBuckets() throws Exception {
+        properties.setMaxClients(1);
+        filter = new RateLimitFilter(new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock), properties);
+        get("/api/greetings", "10.0.0.1");
+        get("/api/greetings", "10.0.0.1");
+
+        // All buckets in use: the new clients share the overflow bucket
+        assertThat(get("/api/greetings", "10.0.0.2").getHeader(RateLimitFilter.RATE_LIMIT_REMAINING)).isEqualTo("1");
+        assertThat(get("/api/greetings", "10.0.0.3").getHeader(RateLimitFilter.RATE_LIMIT_REMAINING)).isEqualTo("0");
+        assertThat(get("/api/greetings", "10.0.0.4").getStatus()).isEqualTo(429);
+
+        clock.add(Duration.ofSeconds(2));
+        MockHttpServletResponse response = get("/api/greetings", "10.0.0.2");
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(response.getHeader(RateLimitFilter.RATE_LIMIT_LIMIT)).isEqualTo("2");
+        assertThat(get("/api/greetings", "10.0.0.3").getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void evictFullBucketsAtMostOncePerSecond() throws Exception {
+        properties.setMaxClients(1);
+        filter = new RateLimitFilter(new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock), properties);
+        get("/api/greetings", "10.0.0.1");
+
+        // The bucket of 10.0.0.1 is not full yet
+        clock.add(Duration.ofMillis(500));
+        assertThat(get("/api/greetings", "10.0.0.2").getHeader(RateLimitFilter.RATE_LIMIT_REMAINING)).isEqualTo("1");
+
+        // It is full again, but the last eviction was less than a second ago: the overflow bucket is used
+        clock.add(Duration.ofMillis(700));
+        assertThat(get("/api/greetings", "10.0.0.3").getHeader(RateLimitFilter.RATE_LIMIT_REMAINING)).isEqualTo("0");
+
+        clock.add(Duration.ofMillis(400));
+        assertThat(get("/api/greetings", "10.0.0.4").getHeader(RateLimitFilter.RATE_LIMIT_REMAINING)).isEqualTo("1");
+    }
+
+    @Test
+    void passThroughOtherPaths() throws Exception {
+        properties.getLimits().forEach(limit -> limit.setPaths(List.of("/api/messages/**")));
+        filter = new RateLimitFilter(new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock), properties);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = get("/api/greetings", "10.0.0.1");
+            assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+            assertThat(response.getHeader(RateLimitFilter.RATE_LIMIT_LIMIT)).isNull();
+        }
+    }
+
+    private MockHttpServletResponse get(String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static void authenticate(String login, String authority) {
+        SecurityContextHolder
+            .getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken(login, "token", List.of(new SimpleGrantedAuthority(authority))));
+    }
+}
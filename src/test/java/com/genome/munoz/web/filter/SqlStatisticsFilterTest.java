@@ -0,0 +1,157 @@
+package com.genome.munoz.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.genome.munoz.config.ApplicationProperties;
+import com.genome.munoz.management.SqlStatistics;
+import com.genome.munoz.management.SqlStatisticsDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Unit tests for the {@link SqlStatisticsFilter} and {@link SqlStatisticsDataSource} classes.
+ */
+class SqlStatisticsFilterTest {
+
+    private HikariDataSource hikariDataSource;
+
+    private DataSource dataSource;
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties.SqlStatistics properties;
+
+    private SqlStatisticsFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        hikariDataSource = new HikariDataSource();
+        hikariDataSource.setJdbcUrl("jdbc:h2:mem:sql-statistics;DB_CLOSE_DELAY=-1");
+        dataSource = SqlStatisticsDataSource.instrument(hikariDataSource);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ApplicationProperties.SqlStatistics();
+        filter = new SqlStatisticsFilter(meterRegistry, properties);
+    }
+
+    @AfterEach
+    public void teardown() {
+        hikariDataSource.close();
+    }
+
+    @Test
+    void instrumentedDataSourceKeepsItsType() {
+        assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+    }
+
+    @Test
+    void recordsStatementsOfRequest() throws Exception {
+        properties.setServerTiming(true);
+        MockHttpServletRequest request = request("budgetOfTwo");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(
+            request,
+            response,
+            new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest req, ServletResponse res) {
+                    try {
+                        selectOne(2);
+                        res.getWriter().write("ok");
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        );
+
+        assertThat(response.getHeader(SqlStatisticsFilter.SERVER_TIMING)).startsWith("db;dur=").endsWith("desc=\"2 statements, 2 rows\"");
+        assertThat(meterRegistry.get(SqlStatisticsFilter.STATEMENTS_METER_NAME).tag("uri", "/api/test").summary().totalAmount())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get(SqlStatisticsFilter.ROWS_METER_NAME).tag("method", "GET").summary().totalAmount()).isEqualTo(2);
+        assertThat(SqlStatistics.current()).isNull();
+    }
+
+    @Test
+    void failsRequestOverBudget() {
+        properties.setFailOnBudgetExceeded(true);
+        MockHttpServletRequest request = request("budgetOfOne");
+
+        assertThatThrownBy(() ->
+                filter.doFilter(
+                    request,
+                    new MockHttpServletResponse(),
+                    new MockFilterChain() {
+                        @Override
+                        public void doFilter(ServletRequest req, ServletResponse res) {
+                            selectOne(2);
+                        }
+                    }
+                )
+            )
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("GET /api/test issued 2 SQL statements, over its budget of 1");
+    }
+
+    @Test
+    void ignoresStatementsOutsideOfRequests() {
+        selectOne(1);
+
+        assertThat(SqlStatistics.current()).isNull();
+        assertThat(meterRegistry.find(SqlStatisticsFilter.STATEMENTS_METER_NAME).meters()).isEmpty();
+    }
+
+    private static MockHttpServletRequest request(String handlerMethodName) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/test");
+        try {
+            request.setAttribute(
+                HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new BudgetedController(), BudgetedController.class.getMethod(handlerMethodName))
+            );
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        return request;
+    }
+
+    private void selectOne(int times) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (int i = 0; i < times; i++) {
+                try (ResultSet rs = statement.executeQuery("select 1")) {
+                    while (rs.next()) {
+                        assertThat(rs.getInt(1)).isEqualTo(1);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class BudgetedController {
+
+        @SqlBudget(statements = 1)
+        public void budgetOfOne() {}
+
+        @SqlBudget(statements = 2)
+        public void budgetOfTwo() {}
+    }
+}
@@ -1,22 +1,39 @@
 package com.genome.munoz.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.genome.munoz.IntegrationTest;
+import com.genome.munoz.config.SqlStatementCounter;
 import com.genome.munoz.domain.Greeting;
+import com.genome.munoz.domain.Messages;
 import com.genome.munoz.repository.GreetingRepository;
+import com.genome.munoz.repository.MessagesRepository;
+import com.genome.munoz.service.dto.GreetingDTO;
+import com.genome.munoz.web.filter.SqlStatisticsFilter;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -41,6 +58,9 @@ class GreetingResourceIT {
     @Autowired
     private GreetingRepository greetingRepository;
 
+    @Autowired
+    private MessagesRepository messagesRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -83,7 +103,8 @@ class GreetingResourceIT {
         // Create the Greeting
         restGreetingMockMvc
             .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(greeting)))
-            .andExpect(status().isCreated());
+            .andExpect(status().isCreated())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
 
         // Validate the Greeting in the database
         List<Greeting> greetingList = greetingRepository.findAll();
@@ -125,6 +146,25 @@ class GreetingResourceIT {
             .andExpect(jsonPath("$.[*].greeting").value(hasItem(DEFAULT_GREETING)));
     }
 
+    @Test
+    @Transactional
+    void getAllGreetingsIssuesSingleSelect() throws Exception {
+        // Initialize the database, with messages which must not be loaded
+        greetingRepository.saveAndFlush(greeting);
+        messagesRepository.saveAndFlush(new Messages().message("lazy").hireDate(Instant.EPOCH).greeting(greeting));
+        em.clear();
+        SqlStatementCounter.reset();
+
+        restGreetingMockMvc
+            .perform(get("/api/greetings"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(greeting.getId().intValue())))
+            .andExpect(jsonPath("$.[*].messages").doesNotExist())
+            .andExpect(header().string(SqlStatisticsFilter.SERVER_TIMING, containsString("1 statements")));
+
+        assertThat(SqlStatementCounter.count("SELECT")).isEqualTo(1);
+    }
+
     @Test
     @Transactional
     void getGreeting() throws Exception {
@@ -140,6 +180,151 @@ class GreetingResourceIT {
             .andExpect(jsonPath("$.greeting").value(DEFAULT_GREETING));
     }
 
+    @Test
+    @Transactional
+    void getGreetingAsCbor() throws Exception {
+        // Initialize the database
+        greetingRepository.saveAndFlush(greeting);
+
+        // Get the greeting, with the ETag of its CBOR representation
+        String etag = "\"" + greeting.getVersion() + "-cbor\"";
+        byte[] content = restGreetingMockMvc
+            .perform(get(ENTITY_API_URL_ID, greeting.getId()).accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        GreetingDTO greetingDTO = new CBORMapper().readValue(content, GreetingDTO.class);
+        assertThat(greetingDTO.getId()).isEqualTo(greeting.getId());
+        assertThat(greetingDTO.getGreeting()).isEqualTo(DEFAULT_GREETING);
+
+        // The CBOR ETag only validates the CBOR representation
+        restGreetingMockMvc
+            .perform(get(ENTITY_API_URL_ID, greeting.getId()).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+        restGreetingMockMvc
+            .perform(get(ENTITY_API_URL_ID, greeting.getId()).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + greeting.getVersion() + "\""));
+    }
+
+    @Test
+    @Transactional
+    void createGreetingWithSmile() throws Exception {
+        int databaseSizeBeforeCreate = greetingRepository.findAll().size();
+        SmileMapper smileMapper = new SmileMapper();
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+
+        // Create the Greeting
+        byte[] content = restGreetingMockMvc
+            .perform(post(ENTITY_API_URL).contentType(smile).accept(smile).content(smileMapper.writeValueAsBytes(Map.of("greeting", DEFAULT_GREETING))))
+            .andExpect(status().isCreated())
+            .andExpect(content().contentType(smile))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+        // Validate the Greeting in the database
+        GreetingDTO greetingDTO = smileMapper.readValue(content, GreetingDTO.class);
+        assertThat(greetingDTO.getGreeting()).isEqualTo(DEFAULT_GREETING);
+        assertThat(greetingRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+        assertThat(greetingRepository.findById(greetingDTO.getId())).hasValueSatisfying(created -> assertThat(created.getGreeting()).isEqualTo(DEFAULT_GREETING));
+    }
+
+    @Test
+    @Transactional
+    void getGreetingNotModified() throws Exception {
+        // Initialize the database
+        greetingRepository.saveAndFlush(greeting);
+        String etag = restGreetingMockMvc
+            .perform(get(ENTITY_API_URL_ID, greeting.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("\"" + greeting.getVersion() + "\"");
+
+        // Get the unchanged greeting, without loading it
+        restGreetingMockMvc
+            .perform(get(ENTITY_API_URL_ID, greeting.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""))
+            .andExpect(header().string(SqlStatisticsFilter.SERVER_TIMING, containsString("1 statements")));
+
+        // Get the updated greeting
+        greetingRepository.updateIfVersionMatches(greeting.getId(), greeting.getVersion(), Map.of("greeting", UPDATED_GREETING));
+        restGreetingMockMvc
+            .perform(get(ENTITY_API_URL_ID, greeting.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (greeting.getVersion() + 1) + "\""))
+            .andExpect(jsonPath("$.greeting").value(UPDATED_GREETING));
+    }
+
+    @Test
+    @Transactional
+    void getAllGreetingsNotModified() throws Exception {
+        // Initialize the database
+        greetingRepository.saveAndFlush(greeting);
+        String etag = restGreetingMockMvc
+            .perform(get("/api/greetings"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Get the unchanged greetings, checking the version of the table only
+        restGreetingMockMvc
+            .perform(get("/api/greetings").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=10, stale-while-revalidate=60"))
+            .andExpect(header().string(SqlStatisticsFilter.SERVER_TIMING, containsString("1 statements")));
+
+        // Get the greetings after another one was created
+        greetingRepository.saveAndFlush(createEntity(em));
+        restGreetingMockMvc
+            .perform(get("/api/greetings").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    @Transactional
+    void getAllGreetingsCompressed() throws Exception {
+        // Initialize the database, with enough greetings to be compressed
+        greetingRepository.saveAndFlush(greeting);
+        for (int i = 0; i < 50; i++) {
+            greetingRepository.saveAndFlush(createEntity(em));
+        }
+
+        // Get the greetings twice, compressed once
+        String etag = null;
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = restGreetingMockMvc
+                .perform(get("/api/greetings").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("-gzip\"")))
+                .andReturn()
+                .getResponse();
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+                assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).contains("\"id\":" + greeting.getId());
+            }
+            etag = response.getHeader(HttpHeaders.ETAG);
+        }
+
+        // The gzip ETag validates the gzip representation
+        restGreetingMockMvc
+            .perform(get("/api/greetings").header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
     @Test
     @Transactional
     void getNonExistingGreeting() throws Exception {
@@ -361,4 +546,41 @@ class GreetingResourceIT {
         List<Greeting> greetingList = greetingRepository.findAll();
         assertThat(greetingList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void deleteGreetingsInBulk() throws Exception {
+        // Initialize the database outside of a test transaction, as each chunk of the request commits its own
+        Greeting kept = greetingRepository.saveAndFlush(createEntity(em));
+        Greeting unlinked = greetingRepository.saveAndFlush(createEntity(em));
+        Greeting cascaded = greetingRepository.saveAndFlush(createEntity(em));
+        Messages unlinkedMessages = messagesRepository.saveAndFlush(new Messages().message("unlinked").hireDate(Instant.EPOCH).greeting(unlinked));
+        Messages cascadedMessages = messagesRepository.saveAndFlush(new Messages().message("cascaded").hireDate(Instant.EPOCH).greeting(cascaded));
+        try {
+            restGreetingMockMvc
+                .perform(
+                    delete(ENTITY_API_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(List.of(unlinked.getId(), Long.MAX_VALUE)))
+                )
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("X-Total-Count", "1"));
+            restGreetingMockMvc
+                .perform(
+                    delete(ENTITY_API_URL + "?withMessages=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(List.of(cascaded.getId())))
+                )
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("X-Total-Count", "1"));
+
+            assertThat(greetingRepository.findAllById(List.of(kept.getId(), unlinked.getId(), cascaded.getId())))
+                .extracting(Greeting::getId)
+                .containsExactly(kept.getId());
+            assertThat(messagesRepository.findById(unlinkedMessages.getId())).get().extracting(Messages::getGreeting).isNull();
+            assertThat(messagesRepository.existsById(cascadedMessages.getId())).isFalse();
+        } finally {
+            messagesRepository.deleteAllByIdInBatch(List.of(unlinkedMessages.getId(), cascadedMessages.getId()));
+            greetingRepository.deleteAllByIdInBatch(List.of(kept.getId(), unlinked.getId(), cascaded.getId()));
+        }
+    }
 }
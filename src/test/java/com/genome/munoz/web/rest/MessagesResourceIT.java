@@ -1,27 +1,50 @@
 package com.genome.munoz.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.genome.munoz.IntegrationTest;
+import com.genome.munoz.config.SqlStatementCounter;
+import com.genome.munoz.domain.Greeting;
 import com.genome.munoz.domain.Messages;
+import com.genome.munoz.repository.MessagesArchiveRepository;
 import com.genome.munoz.repository.MessagesRepository;
+import com.genome.munoz.repository.MessagesStatsRepository;
+import com.genome.munoz.service.dto.MessagesDTO;
+import com.genome.munoz.web.filter.SqlStatisticsFilter;
+import com.jayway.jsonpath.JsonPath;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Integration tests for the {@link MessagesResource} REST controller.
@@ -31,6 +54,8 @@ import org.springframework.transaction.annotation.Transactional;
 @WithMockUser
 class MessagesResourceIT {
 
+    private final Logger log = LoggerFactory.getLogger(MessagesResourceIT.class);
+
     private static final String DEFAULT_MESSAGE = "AAAAAAAAAA";
     private static final String UPDATED_MESSAGE = "BBBBBBBBBB";
 
@@ -46,9 +71,18 @@ class MessagesResourceIT {
     @Autowired
     private MessagesRepository messagesRepository;
 
+    @Autowired
+    private MessagesArchiveRepository messagesArchiveRepository;
+
+    @Autowired
+    private MessagesStatsRepository messagesStatsRepository;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private MockMvc restMessagesMockMvc;
 
@@ -132,6 +166,159 @@ class MessagesResourceIT {
             .andExpect(jsonPath("$.[*].hireDate").value(hasItem(DEFAULT_HIRE_DATE.toString())));
     }
 
+    @Test
+    @Transactional
+    void getMessagesByHireDateWithKeysetPaging() throws Exception {
+        // Initialize the database
+        Instant base = Instant.parse("2000-01-01T00:00:00Z");
+        Messages first = messagesRepository.saveAndFlush(createEntity(em).hireDate(base.plus(1, ChronoUnit.HOURS)));
+        Messages second = messagesRepository.saveAndFlush(createEntity(em).hireDate(base.plus(2, ChronoUnit.HOURS)));
+        Messages third = messagesRepository.saveAndFlush(createEntity(em).hireDate(base.plus(2, ChronoUnit.HOURS)));
+        Messages fourth = messagesRepository.saveAndFlush(createEntity(em).hireDate(base.plus(3, ChronoUnit.HOURS)));
+        messagesRepository.saveAndFlush(createEntity(em).hireDate(base.plus(10, ChronoUnit.HOURS)));
+        String range = "?from=" + base + "&to=" + base.plus(5, ChronoUnit.HOURS) + "&size=2";
+
+        // Get the first page
+        restMessagesMockMvc
+            .perform(get(ENTITY_API_URL + range))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("afterId=" + second.getId())));
+
+        // Get the next page, the tie on the hire date being broken by the id
+        restMessagesMockMvc
+            .perform(get(ENTITY_API_URL + range + "&afterHireDate=" + second.getHireDate() + "&afterId=" + second.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue(), fourth.getId().intValue())));
+
+        // The last page is empty and has no next link
+        restMessagesMockMvc
+            .perform(get(ENTITY_API_URL + range + "&afterHireDate=" + fourth.getHireDate() + "&afterId=" + fourth.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getMessagesByHireDateIssuesSingleSelect() throws Exception {
+        // Initialize the database
+        Instant base = Instant.parse("2001-01-01T00:00:00Z");
+        Greeting greeting = new Greeting().greeting("Hello");
+        em.persist(greeting);
+        Messages saved = messagesRepository.saveAndFlush(createEntity(em).hireDate(base).greeting(greeting));
+        messagesRepository.saveAndFlush(createEntity(em).hireDate(base.plus(1, ChronoUnit.HOURS)));
+        em.clear();
+        SqlStatementCounter.reset();
+
+        // The messages and their greeting are read with one query, as projections
+        restMessagesMockMvc
+            .perform(get(ENTITY_API_URL + "?from=" + base + "&to=" + base.plus(5, ChronoUnit.HOURS)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(saved.getId().intValue()))
+            .andExpect(jsonPath("$.[0].greeting.greeting").value("Hello"))
+            .andExpect(jsonPath("$.[1].greeting").isEmpty())
+            .andExpect(header().string(SqlStatisticsFilter.SERVER_TIMING, containsString("desc=\"1 statements, 2 rows\"")));
+
+        assertThat(SqlStatementCounter.count("SELECT")).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void getMessagesByInvalidHireDateRange() throws Exception {
+        Instant now = Instant.now();
+        restMessagesMockMvc.perform(get(ENTITY_API_URL + "?from=" + now + "&to=" + now)).andExpect(status().isBadRequest());
+        restMessagesMockMvc.perform(get(ENTITY_API_URL + "?afterId=1")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getLatestMessagesIssuesNoUpdate() throws Exception {
+        // Initialize the database outside of a test transaction, so that the request commits its own
+        List<Messages> saved = messagesRepository.saveAllAndFlush(
+            List.of(createEntity(em), createEntity(em), createEntity(em).message(UPDATED_MESSAGE))
+        );
+        try {
+            SqlStatementCounter.reset();
+
+            restMessagesMockMvc
+                .perform(get("/api/greeting"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[0].message").value(startsWith("Total of rows :")))
+                .andExpect(jsonPath("$.[2].id").value(saved.get(2).getId().intValue()))
+                .andExpect(jsonPath("$.[2].message").value(UPDATED_MESSAGE));
+
+            assertThat(SqlStatementCounter.count("UPDATE")).isZero();
+            assertThat(messagesRepository.findById(saved.get(0).getId())).get().extracting(Messages::getMessage).isEqualTo(DEFAULT_MESSAGE);
+        } finally {
+            messagesRepository.deleteAll(saved);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getLatestMessagesNotModified() throws Exception {
+        // Initialize the database
+        messagesRepository.saveAndFlush(messages);
+        String etag = restMessagesMockMvc
+            .perform(get("/api/greeting"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Get the unchanged messages, checking the versions of the tables only
+        restMessagesMockMvc
+            .perform(get("/api/greeting").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""))
+            .andExpect(header().string(SqlStatisticsFilter.SERVER_TIMING, containsString("2 statements")));
+
+        // Get the messages after the latest one was updated
+        messagesRepository.updateIfVersionMatches(messages.getId(), messages.getVersion(), Map.of("message", UPDATED_MESSAGE));
+        restMessagesMockMvc
+            .perform(get("/api/greeting").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void searchMessages() throws Exception {
+        // Initialize the database outside of a test transaction, so that the commits reach the search index
+        List<Messages> saved = messagesRepository.saveAllAndFlush(
+            List.of(createEntity(em).message("Genome sequencing"), createEntity(em).message("Genomes assembled"))
+        );
+        try {
+            restMessagesMockMvc
+                .perform(get(ENTITY_API_URL + "/search?q=genome"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$.[*].id").value(contains(saved.get(1).getId().intValue(), saved.get(0).getId().intValue())));
+
+            // The saved copy is versioned, keep the one with the new version
+            saved.set(0, messagesRepository.saveAndFlush(saved.get(0).message("Protein folding")));
+
+            restMessagesMockMvc
+                .perform(get(ENTITY_API_URL + "/search?q=GENOME assem"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].message").value(contains("Genomes assembled")));
+            restMessagesMockMvc
+                .perform(get(ENTITY_API_URL + "/search?q=prot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(saved.get(0).getId().intValue())));
+        } finally {
+            messagesRepository.deleteAll(saved);
+        }
+        restMessagesMockMvc.perform(get(ENTITY_API_URL + "/search?q=genome")).andExpect(header().string("X-Total-Count", "0"));
+    }
+
+    @Test
+    void searchMessagesWithBlankQuery() throws Exception {
+        restMessagesMockMvc.perform(get(ENTITY_API_URL + "/search?q= ")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getMessages() throws Exception {
@@ -148,6 +335,26 @@ class MessagesResourceIT {
             .andExpect(jsonPath("$.hireDate").value(DEFAULT_HIRE_DATE.toString()));
     }
 
+    @Test
+    @Transactional
+    void getMessagesAsCbor() throws Exception {
+        // Initialize the database
+        messagesRepository.saveAndFlush(messages);
+
+        // Get the messages
+        byte[] content = restMessagesMockMvc
+            .perform(get(ENTITY_API_URL_ID, messages.getId()).accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        MessagesDTO messagesDTO = CBORMapper.builder().addModule(new JavaTimeModule()).build().readValue(content, MessagesDTO.class);
+        assertThat(messagesDTO.getId()).isEqualTo(messages.getId());
+        assertThat(messagesDTO.getMessage()).isEqualTo(DEFAULT_MESSAGE);
+        assertThat(messagesDTO.getHireDate()).isEqualTo(DEFAULT_HIRE_DATE);
+    }
+
     @Test
     @Transactional
     void getNonExistingMessages() throws Exception {
@@ -155,6 +362,50 @@ class MessagesResourceIT {
         restMessagesMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getArchivedMessages() throws Exception {
+        // Initialize the database, and move the messages to the archive
+        Instant hireDate = Instant.parse("1900-01-01T00:00:00Z");
+        Messages archived = messagesRepository.saveAndFlush(createEntity(em).hireDate(hireDate));
+        messagesArchiveRepository.moveToArchive(hireDate.plusSeconds(1), List.of(archived.getId()), Instant.now());
+        em.clear();
+
+        // Get the archived messages
+        restMessagesMockMvc
+            .perform(get(ENTITY_API_URL_ID, archived.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(archived.getId().intValue()))
+            .andExpect(jsonPath("$.message").value(DEFAULT_MESSAGE))
+            .andExpect(jsonPath("$.hireDate").value(hireDate.toString()));
+    }
+
+    @Test
+    @Transactional
+    void getMessagesStats() throws Exception {
+        // Initialize the database and its rollups
+        LocalDate day = LocalDate.of(1900, 1, 1);
+        messagesRepository.saveAndFlush(createEntity(em).hireDate(Instant.parse("1900-01-01T08:00:00Z")));
+        messagesRepository.saveAndFlush(createEntity(em).hireDate(Instant.parse("1900-01-01T20:00:00Z")));
+        messagesStatsRepository.recompute(day, day.plusDays(1));
+
+        // Get the statistics, from the rollups only
+        restMessagesMockMvc
+            .perform(get(ENTITY_API_URL + "/stats?from=1900-01-01&to=1900-01-08"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].day").value(contains("1900-01-01")))
+            .andExpect(jsonPath("$.[0].greetingId").doesNotExist())
+            .andExpect(jsonPath("$.[0].count").value(2))
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+            .andExpect(header().string(SqlStatisticsFilter.SERVER_TIMING, containsString("desc=\"1 statements, 1 rows\"")));
+    }
+
+    @Test
+    @Transactional
+    void getMessagesStatsWithInvalidRange() throws Exception {
+        restMessagesMockMvc.perform(get(ENTITY_API_URL + "/stats?from=1900-01-08&to=1900-01-01")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void putNewMessages() throws Exception {
@@ -205,6 +456,58 @@ class MessagesResourceIT {
         assertThat(messagesList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void putMessagesWithoutHireDate() throws Exception {
+        // Initialize the database
+        messagesRepository.saveAndFlush(messages);
+
+        Messages updatedMessages = messagesRepository.findById(messages.getId()).get();
+        em.detach(updatedMessages);
+        updatedMessages.message(UPDATED_MESSAGE).hireDate(null);
+
+        // The hire date is the partition key of the messages on PostgreSQL, so it cannot be null
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedMessages.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedMessages))
+            )
+            .andExpect(status().isBadRequest());
+
+        Messages testMessages = messagesRepository.findById(messages.getId()).get();
+        assertThat(testMessages.getMessage()).isEqualTo(DEFAULT_MESSAGE);
+        assertThat(testMessages.getHireDate()).isEqualTo(DEFAULT_HIRE_DATE);
+    }
+
+    @Test
+    @Transactional
+    void putMessagesWithGreetingReference() throws Exception {
+        // Initialize the database
+        Greeting greeting = new Greeting().greeting("Hello");
+        em.persist(greeting);
+        messagesRepository.saveAndFlush(messages);
+
+        // The greeting is referenced by its id only
+        String body = String.format(
+            "{\"id\":%d,\"message\":\"%s\",\"hireDate\":\"%s\",\"version\":%d,\"greeting\":{\"id\":%d}}",
+            messages.getId(),
+            UPDATED_MESSAGE,
+            UPDATED_HIRE_DATE,
+            messages.getVersion(),
+            greeting.getId()
+        );
+        restMessagesMockMvc
+            .perform(put(ENTITY_API_URL_ID, messages.getId()).contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value(UPDATED_MESSAGE))
+            .andExpect(jsonPath("$.greeting.id").value(greeting.getId().intValue()));
+
+        Messages testMessages = messagesRepository.findById(messages.getId()).get();
+        assertThat(testMessages.getGreeting().getId()).isEqualTo(greeting.getId());
+        assertThat(testMessages.getVersion()).isEqualTo(messages.getVersion() + 1);
+    }
+
     @Test
     @Transactional
     void putWithIdMismatchMessages() throws Exception {
@@ -299,6 +602,289 @@ class MessagesResourceIT {
         assertThat(testMessages.getHireDate()).isEqualTo(UPDATED_HIRE_DATE);
     }
 
+    @Test
+    void patchMessagesWithIfMatchIssuesSingleUpdate() throws Exception {
+        // Initialize the database outside of a test transaction, so that the request commits its own
+        Messages saved = messagesRepository.saveAndFlush(messages);
+        try {
+            Messages partialUpdatedMessages = new Messages().message(UPDATED_MESSAGE);
+            partialUpdatedMessages.setId(saved.getId());
+            SqlStatementCounter.reset();
+
+            restMessagesMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, saved.getId())
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .header("Prefer", "return=minimal")
+                        .content(TestUtil.convertObjectToJsonBytes(partialUpdatedMessages))
+                )
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+            assertThat(SqlStatementCounter.count("UPDATE")).isEqualTo(1);
+            assertThat(SqlStatementCounter.count("SELECT")).isZero();
+            Messages testMessages = messagesRepository.findById(saved.getId()).get();
+            assertThat(testMessages.getMessage()).isEqualTo(UPDATED_MESSAGE);
+            assertThat(testMessages.getHireDate()).isEqualTo(DEFAULT_HIRE_DATE);
+            assertThat(testMessages.getVersion()).isEqualTo(1L);
+
+            restMessagesMockMvc
+                .perform(get(ENTITY_API_URL + "/search?q=" + UPDATED_MESSAGE))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(saved.getId().intValue())));
+        } finally {
+            messagesRepository.deleteById(saved.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void patchMessagesWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        messagesRepository.saveAndFlush(messages);
+
+        Messages partialUpdatedMessages = new Messages().message(UPDATED_MESSAGE);
+        partialUpdatedMessages.setId(messages.getId());
+
+        restMessagesMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, messages.getId())
+                    .contentType("application/merge-patch+json")
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedMessages))
+            )
+            .andExpect(status().isPreconditionFailed());
+        restMessagesMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, messages.getId())
+                    .contentType("application/merge-patch+json")
+                    .header(HttpHeaders.IF_MATCH, "not-a-version")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedMessages))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Validate the Messages in the database
+        Messages testMessages = messagesRepository.findById(messages.getId()).get();
+        assertThat(testMessages.getMessage()).isEqualTo(DEFAULT_MESSAGE);
+        assertThat(testMessages.getVersion()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void putMessagesWithStaleVersion() throws Exception {
+        // Initialize the database
+        messagesRepository.saveAndFlush(messages);
+
+        Messages updatedMessages = new Messages().message(UPDATED_MESSAGE).hireDate(UPDATED_HIRE_DATE).version(1L);
+        updatedMessages.setId(messages.getId());
+
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, messages.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedMessages))
+            )
+            .andExpect(status().isConflict());
+
+        updatedMessages.setVersion(0L);
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, messages.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedMessages))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.message").value(UPDATED_MESSAGE))
+            .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void conditionalUpdateComparedToLoadAndSave() {
+        // Initialize the database outside of a test transaction, so that each update commits its own
+        int updates = 200;
+        Messages saved = messagesRepository.saveAndFlush(messages);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            SqlStatementCounter.reset();
+            long start = System.nanoTime();
+            for (int i = 0; i < updates; i++) {
+                String message = "Loaded " + i;
+                transaction.executeWithoutResult(status -> {
+                    Messages loaded = messagesRepository.findById(saved.getId()).get();
+                    messagesRepository.save(loaded.message(message));
+                });
+            }
+            long loadAndSaveNanos = System.nanoTime() - start;
+            long loadAndSaveStatements = SqlStatementCounter.count("SELECT") + SqlStatementCounter.count("UPDATE");
+
+            SqlStatementCounter.reset();
+            start = System.nanoTime();
+            for (int i = 0; i < updates; i++) {
+                long version = updates + i;
+                Map<String, Object> attributes = Map.of("message", "Updated " + i);
+                transaction.executeWithoutResult(status ->
+                    assertThat(messagesRepository.updateIfVersionMatches(saved.getId(), version, attributes)).isTrue()
+                );
+            }
+            long conditionalNanos = System.nanoTime() - start;
+            long conditionalStatements = SqlStatementCounter.count("SELECT") + SqlStatementCounter.count("UPDATE");
+
+            log.info(
+                "{} updates: load and save {} ms ({} statements), conditional update {} ms ({} statements)",
+                updates,
+                loadAndSaveNanos / 1_000_000,
+                loadAndSaveStatements,
+                conditionalNanos / 1_000_000,
+                conditionalStatements
+            );
+            // Timings depend on the machine, only the round trips are asserted
+            assertThat(loadAndSaveStatements).isEqualTo(2L * updates);
+            assertThat(conditionalStatements).isEqualTo(updates);
+            assertThat(messagesRepository.findById(saved.getId()).get().getVersion()).isEqualTo(2L * updates);
+        } finally {
+            messagesRepository.deleteById(saved.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void upsertMessages() throws Exception {
+        int databaseSizeBeforeUpsert = messagesRepository.findAll().size();
+        messages.setIdempotencyKey("upsert-" + count.incrementAndGet());
+
+        String created = restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(messages))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.message").value(DEFAULT_MESSAGE))
+            .andExpect(jsonPath("$.version").value(0))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        Integer id = JsonPath.read(created, "$.id");
+
+        // A retry returns the same messages, unchanged
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(messages))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(id))
+            .andExpect(jsonPath("$.version").value(0));
+
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(messages.message(UPDATED_MESSAGE)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(id))
+            .andExpect(jsonPath("$.message").value(UPDATED_MESSAGE))
+            .andExpect(jsonPath("$.version").value(1));
+
+        // Validate the Messages in the database
+        List<Messages> messagesList = messagesRepository.findAll();
+        assertThat(messagesList).hasSize(databaseSizeBeforeUpsert + 1);
+        Messages testMessages = messagesRepository.findById(id.longValue()).get();
+        assertThat(testMessages.getMessage()).isEqualTo(UPDATED_MESSAGE);
+        assertThat(testMessages.getHireDate()).isEqualTo(DEFAULT_HIRE_DATE);
+        assertThat(testMessages.getIdempotencyKey()).isEqualTo(messages.getIdempotencyKey());
+    }
+
+    @Test
+    @Transactional
+    void upsertMessagesWithAnotherHireDate() throws Exception {
+        int databaseSizeBeforeUpsert = messagesRepository.findAll().size();
+        messages.setIdempotencyKey("upsert-" + count.incrementAndGet());
+
+        String created = restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(messages))
+            )
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        Integer id = JsonPath.read(created, "$.id");
+
+        // The idempotency key is unique per hire date: the same key with another hire date is another messages
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(messages.hireDate(UPDATED_HIRE_DATE)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(not(id)))
+            .andExpect(jsonPath("$.hireDate").value(UPDATED_HIRE_DATE.toString()))
+            .andExpect(jsonPath("$.version").value(0));
+
+        // Validate the Messages in the database
+        assertThat(messagesRepository.findAll()).hasSize(databaseSizeBeforeUpsert + 2);
+        Messages first = messagesRepository.findById(id.longValue()).get();
+        assertThat(first.getHireDate()).isEqualTo(DEFAULT_HIRE_DATE);
+        assertThat(first.getVersion()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void upsertMessagesBatch() throws Exception {
+        Messages existing = messagesRepository.saveAndFlush(messages.idempotencyKey("upsert-" + count.incrementAndGet()));
+        int databaseSizeBeforeUpsert = messagesRepository.findAll().size();
+        List<Messages> batch = List.of(
+            createEntity(em).idempotencyKey("upsert-" + count.incrementAndGet()),
+            createEntity(em).idempotencyKey(existing.getIdempotencyKey()),
+            createUpdatedEntity(em).idempotencyKey("upsert-" + count.incrementAndGet())
+        );
+
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert/batch").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(batch))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].idempotencyKey").value(contains(batch.stream().map(Messages::getIdempotencyKey).toArray())))
+            .andExpect(jsonPath("$.[1].id").value(existing.getId().intValue()))
+            .andExpect(jsonPath("$.[1].version").value(0))
+            .andExpect(jsonPath("$.[2].message").value(UPDATED_MESSAGE));
+
+        assertThat(messagesRepository.findAll()).hasSize(databaseSizeBeforeUpsert + 2);
+    }
+
+    @Test
+    @Transactional
+    void upsertInvalidMessages() throws Exception {
+        int databaseSizeBeforeUpsert = messagesRepository.findAll().size();
+
+        // Without idempotency key
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(messages))
+            )
+            .andExpect(status().isBadRequest());
+        // Without hire date
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new Messages().message(DEFAULT_MESSAGE).idempotencyKey("upsert-nodate")))
+            )
+            .andExpect(status().isBadRequest());
+        // With the same idempotency key twice in a batch
+        Messages duplicate = createEntity(em).idempotencyKey("upsert-" + count.incrementAndGet());
+        restMessagesMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/upsert/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(duplicate, duplicate)))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(messagesRepository.findAll()).hasSize(databaseSizeBeforeUpsert);
+    }
+
     @Test
     @Transactional
     void patchNonExistingMessages() throws Exception {
@@ -372,4 +958,59 @@ class MessagesResourceIT {
         List<Messages> messagesList = messagesRepository.findAll();
         assertThat(messagesList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void deleteMessagesInBulk() throws Exception {
+        // Initialize the database outside of a test transaction, as each chunk of the request commits its own
+        List<Messages> saved = messagesRepository.saveAllAndFlush(List.of(createEntity(em), createEntity(em), createEntity(em)));
+        List<Long> ids = saved.stream().map(Messages::getId).collect(Collectors.toList());
+        try {
+            restMessagesMockMvc
+                .perform(
+                    delete(ENTITY_API_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(List.of(ids.get(0), ids.get(1), Long.MAX_VALUE)))
+                )
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("X-Total-Count", "2"));
+
+            assertThat(messagesRepository.findAllById(ids)).extracting(Messages::getId).containsExactly(ids.get(2));
+        } finally {
+            messagesRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    @Test
+    void deleteMessagesInBulkByHireDate() throws Exception {
+        // More messages than a chunk, hired in a range no other test uses
+        Instant from = Instant.parse("1971-03-01T00:00:00Z");
+        Instant to = from.plus(30, ChronoUnit.DAYS);
+        List<Messages> inRange = new ArrayList<>();
+        for (int i = 0; i < 1030; i++) {
+            inRange.add(createEntity(em).hireDate(from.plus(i, ChronoUnit.MINUTES)));
+        }
+        List<Messages> saved = messagesRepository.saveAllAndFlush(inRange);
+        Messages outOfRange = messagesRepository.saveAndFlush(createEntity(em).hireDate(to));
+        try {
+            restMessagesMockMvc
+                .perform(delete(ENTITY_API_URL + "?from=" + from + "&to=" + to))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("X-Total-Count", "1030"));
+
+            assertThat(messagesRepository.findIdsByHireDateRange(from, to, PageRequest.of(0, 10))).isEmpty();
+            assertThat(messagesRepository.existsById(outOfRange.getId())).isTrue();
+        } finally {
+            messagesRepository.deleteAllByIdInBatch(saved.stream().map(Messages::getId).collect(Collectors.toList()));
+            messagesRepository.deleteById(outOfRange.getId());
+        }
+    }
+
+    @Test
+    void deleteMessagesInBulkWithInvalidCriteria() throws Exception {
+        restMessagesMockMvc.perform(delete(ENTITY_API_URL)).andExpect(status().isBadRequest());
+        restMessagesMockMvc
+            .perform(delete(ENTITY_API_URL + "?from=" + DEFAULT_HIRE_DATE).contentType(MediaType.APPLICATION_JSON).content("[]"))
+            .andExpect(status().isBadRequest());
+        restMessagesMockMvc.perform(delete(ENTITY_API_URL + "?from=" + DEFAULT_HIRE_DATE)).andExpect(status().isBadRequest());
+    }
 }